@@ -0,0 +1,94 @@
+package com.example.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.example.service.schedule.ClassroomScheduler;
+import com.example.service.schedule.MultiStartScheduler;
+import com.example.service.schedule.SchedulingProblem;
+import com.example.service.schedule.SolverControl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Solve time of the scheduling engine on synthetic schools of 100, 1k and 10k students.
+ * <p>
+ * Run with {@code mvn -P benchmark compile exec:exec}; the profile adds {@code -prof gc} for the allocation rate.
+ * The {@code unmetUnits} counter shows the lesson-units the last schedule of each iteration misses, so a faster engine
+ * that schedules fewer lessons is visible in the same report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SchedulerBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"100", "1000", "10000"})
+    private int students;
+
+    @Param({"4"})
+    private int maxConsecutiveLessons;
+
+    private SyntheticSchoolGenerator.School school;
+    private SchedulingProblem problem;
+
+    /**
+     * Quality of the produced schedule, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Quality {
+        public long unmetUnits;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            unmetUnits = 0;
+        }
+
+        void record(ClassroomScheduler scheduler) {
+            unmetUnits = scheduler.getUnmetUnits();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generateSchool() {
+        school = SyntheticSchoolGenerator.generate(SyntheticSchoolGenerator.SchoolSpec.ofStudents(students, SEED));
+        problem = school.toProblem();
+    }
+
+    @Benchmark
+    public SchedulingProblem compileProblem() {
+        return school.toProblem();
+    }
+
+    @Benchmark
+    public ClassroomScheduler greedy(Quality quality) {
+        ClassroomScheduler scheduler = new ClassroomScheduler(problem, maxConsecutiveLessons);
+        scheduler.placeLessons(null);
+        quality.record(scheduler);
+        return scheduler;
+    }
+
+    @Benchmark
+    public ClassroomScheduler multiStart(Quality quality) {
+        ClassroomScheduler scheduler = new MultiStartScheduler(
+                () -> new ClassroomScheduler(problem, maxConsecutiveLessons), 0, 4, SEED, SolverControl.none())
+                .solve();
+        quality.record(scheduler);
+        return scheduler;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.benchmark;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import com.example.db.Classroom;
+import com.example.db.Student;
+import com.example.db.Subject;
+import com.example.db.Teacher;
+import com.example.service.schedule.SchedulingProblem;
+
+/**
+ * Seeded generator of synthetic schools for the scheduler benchmarks. The same spec always gives the same school.
+ * <p>
+ * Every level has its own subjects, students pick their subjects from their level and teachers get consecutive
+ * subjects of one level, so every subject has a teacher. Teacher hours start and end on the hour within the given
+ * window, classroom capacities are uniform within the given range.
+ */
+public final class SyntheticSchoolGenerator {
+
+    /**
+     * Shape of a generated school.
+     */
+    public record SchoolSpec(int students, int levels, int subjectsPerLevel, int subjectsPerStudent,
+            int lessonsPerSubject, int teachers, int subjectsPerTeacher, LocalTime earliestStart,
+            LocalTime latestEnd, int classrooms, int minCapacity, int maxCapacity, long seed) {
+
+        /**
+         * School with the student count and the usual ratios: 3 levels of 12 subjects, 9 subjects per student, one
+         * teacher per 10 students and one classroom per 25 students.
+         */
+        public static SchoolSpec ofStudents(int students, long seed) {
+            return new SchoolSpec(students, 3, 12, 9, 3, Math.max(students / 10, 12), 3, LocalTime.of(9, 0),
+                    LocalTime.of(17, 30), Math.max(students / 25, 2), 10, 35, seed);
+        }
+    }
+
+    /**
+     * Generated roster entities with ids, as the scheduler gets them from the database.
+     */
+    public record School(List<Student> students, List<Teacher> teachers, List<Subject> subjects,
+            List<Classroom> classrooms) {
+
+        public SchedulingProblem toProblem() {
+            return SchedulingProblem.of(students, teachers, subjects, classrooms);
+        }
+    }
+
+    private SyntheticSchoolGenerator() {
+    }
+
+    public static School generate(SchoolSpec spec) {
+        Random random = new Random(spec.seed());
+
+        List<Subject> subjects = new ArrayList<>();
+        for (int level = 1; level <= spec.levels(); level++) {
+            for (int i = 0; i < spec.subjectsPerLevel(); i++) {
+                subjects.add(Subject.builder()
+                        .id((long) subjects.size() + 1)
+                        .name("Subject " + level + "." + i)
+                        .level(level)
+                        .totalCountPerWeek(1 + random.nextInt(spec.lessonsPerSubject() * 2 - 1))
+                        .build());
+            }
+        }
+
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < spec.teachers(); i++) {
+            // Teachers of a level take its subjects round-robin, so every subject gets a teacher
+            int level = i % spec.levels();
+            Set<Subject> teacherSubjects = new HashSet<>();
+            for (int k = 0; k < spec.subjectsPerTeacher(); k++) {
+                int offset = (i / spec.levels() * spec.subjectsPerTeacher() + k) % spec.subjectsPerLevel();
+                teacherSubjects.add(subjects.get(level * spec.subjectsPerLevel() + offset));
+            }
+
+            Teacher teacher = new Teacher();
+            teacher.setId((long) i + 1);
+            teacher.setName("Teacher");
+            teacher.setSurname(String.valueOf(i));
+            teacher.setPatronymic("");
+            teacher.setTimeStart(randomHour(random, spec.earliestStart(), spec.earliestStart().plusHours(2)));
+            teacher.setTimeEnd(randomHour(random, spec.latestEnd().minusHours(3), spec.latestEnd()));
+            teacher.setSubjects(teacherSubjects);
+            teachers.add(teacher);
+        }
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < spec.students(); i++) {
+            int level = 1 + random.nextInt(spec.levels());
+            List<Subject> levelSubjects = new ArrayList<>(
+                    subjects.subList((level - 1) * spec.subjectsPerLevel(), level * spec.subjectsPerLevel()));
+            Collections.shuffle(levelSubjects, random);
+
+            Student student = new Student();
+            student.setId((long) i + 1);
+            student.setName("Student");
+            student.setSurname(String.valueOf(i));
+            student.setLevel(level);
+            student.setSubjects(new HashSet<>(
+                    levelSubjects.subList(0, Math.min(spec.subjectsPerStudent(), levelSubjects.size()))));
+            students.add(student);
+        }
+
+        List<Classroom> classrooms = new ArrayList<>();
+        for (int i = 0; i < spec.classrooms(); i++) {
+            Classroom classroom = new Classroom();
+            classroom.setId((long) i + 1);
+            classroom.setName("Room " + i);
+            classroom.setCapacity(spec.minCapacity() + random.nextInt(spec.maxCapacity() - spec.minCapacity() + 1));
+            classrooms.add(classroom);
+        }
+
+        return new School(students, teachers, subjects, classrooms);
+    }
+
+    private static LocalTime randomHour(Random random, LocalTime from, LocalTime to) {
+        int hours = Math.max(to.getHour() - from.getHour(), 0);
+        return from.withMinute(0).plusHours(random.nextInt(hours + 1));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.config;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "scheduler")
+public class SchedulerProperties {
+    /**
+     * Maximum number of back-to-back lessons of the same subject a student can get.
+     */
+    private int maxConsecutiveLessons = 4;
+
+    /**
+     * Number of the most urgent subjects the greedy construction compares for every classroom-slot.
+     */
+    private int subjectLookahead = 8;
+
+    /**
+     * Engine that builds the schedule.
+     */
+    private Engine engine = Engine.GREEDY;
+
+    private MultiStart multiStart = new MultiStart();
+
+    private LocalSearch localSearch = new LocalSearch();
+
+    private Exact exact = new Exact();
+
+    private Progress progress = new Progress();
+
+    private Jobs jobs = new Jobs();
+
+    private Runs runs = new Runs();
+
+    private TimetableCache timetableCache = new TimetableCache();
+
+    public enum Engine {
+        /**
+         * Multi-start greedy construction followed by local search.
+         */
+        GREEDY,
+        /**
+         * Bounded branch and bound search from the greedy schedule, followed by local search. It returns the best
+         * schedule of its search tree, which fixes each cohort by the seating rule, so even a finished search is not
+         * proven optimal over all schedules.
+         */
+        EXACT
+    }
+
+    @Data
+    public static class MultiStart {
+        /**
+         * Number of greedy passes, the first one is deterministic and the others are randomized.
+         */
+        private int starts = 1;
+
+        /**
+         * Worker threads for the passes, zero uses all available processors.
+         */
+        private int threads = 0;
+
+        /**
+         * Seed of the randomized passes, the same seed gives the same schedule.
+         */
+        private long seed = 42;
+    }
+
+    @Data
+    public static class LocalSearch {
+        /**
+         * Iterations of the improvement phase after greedy construction, zero disables it. The phase only depends on
+         * the seed, so the same seed gives the same schedule.
+         */
+        private int maxIterations = 200_000;
+
+        /**
+         * Optional wall-clock cap of the improvement phase. When the cap ends the phase before {@code maxIterations}
+         * the schedule depends on the speed of the machine, so the same seed can give different schedules. Unset
+         * means no cap.
+         */
+        private Duration timeBudget;
+    }
+
+    @Data
+    public static class Exact {
+        /**
+         * Wall-clock limit of the branch and bound search, the best schedule found so far is used when it runs out.
+         */
+        private Duration timeLimit = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Progress {
+        /**
+         * Minimum time between two progress snapshots of a running generation.
+         */
+        private Duration interval = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class Jobs {
+        /**
+         * Jobs that can wait for a free run, further submissions are rejected. One job runs at a time because every
+         * run replaces the live schedule.
+         */
+        private int queueCapacity = 10;
+
+        /**
+         * How long a finished job and its result can still be polled.
+         */
+        private Duration retention = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Runs {
+        /**
+         * Earlier schedule runs kept for rollback besides the live one, older runs are deleted after a publish.
+         */
+        private int retained = 3;
+    }
+
+    @Data
+    public static class TimetableCache {
+        /**
+         * Largest live run kept in memory, larger runs are read from the database on every request.
+         */
+        private int maxLessons = 50_000;
+    }
+}
@@ -5,8 +5,10 @@ import com.example.dto.StudentScheduleDto;
 import com.example.dto.TeacherScheduleDto;
 import com.example.service.LessonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -39,6 +41,7 @@ public class LessonController {
         return lessonService.findById(id)
                 .map(existingLesson -> {
                     lesson.setId(id);
+                    lesson.setRun(existingLesson.getRun());
                     return ResponseEntity.ok(lessonService.save(lesson));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -56,10 +59,15 @@ public class LessonController {
 
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<List<StudentScheduleDto>> getStudentSchedule(@PathVariable Long studentId) {
+    public ResponseEntity<List<StudentScheduleDto>> getStudentSchedule(@PathVariable Long studentId,
+            WebRequest request) {
+        LessonService.TimetableSource source = lessonService.getTimetableSource();
+        if (request.checkNotModified(source.etag())) {
+            return null;
+        }
         try {
-            List<StudentScheduleDto> schedule = lessonService.getStudentSchedule(studentId);
-            return ResponseEntity.ok(schedule);
+            List<StudentScheduleDto> schedule = lessonService.getStudentSchedule(source, studentId);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(source.etag()).body(schedule);
         } catch (IllegalStateException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -68,10 +76,15 @@ public class LessonController {
     }
 
     @GetMapping("/teacher/{teacherId}")
-    public ResponseEntity<List<TeacherScheduleDto>> getTeacherSchedule(@PathVariable Long teacherId) {
+    public ResponseEntity<List<TeacherScheduleDto>> getTeacherSchedule(@PathVariable Long teacherId,
+            WebRequest request) {
+        LessonService.TimetableSource source = lessonService.getTimetableSource();
+        if (request.checkNotModified(source.etag())) {
+            return null;
+        }
         try {
-            List<TeacherScheduleDto> schedule = lessonService.getTeacherSchedule(teacherId);
-            return ResponseEntity.ok(schedule);
+            List<TeacherScheduleDto> schedule = lessonService.getTeacherSchedule(source, teacherId);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(source.etag()).body(schedule);
         } catch (IllegalStateException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -1,5 +1,6 @@
 package com.example.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import com.example.db.Classroom;
@@ -9,15 +10,18 @@ import com.example.dto.ScheduledLesson;
 import com.example.service.ClassroomService;
 import com.example.service.ExcelReportService;
 import com.example.service.LessonService;
+import com.example.service.ScheduleVersion;
 import com.example.service.StudentService;
 import com.example.service.TeacherService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -28,41 +32,66 @@ public class ReportController {
     private final StudentService studentService;
     private final TeacherService teacherService;
     private final ClassroomService classroomService;
+    private final ScheduleVersion scheduleVersion;
 
     @GetMapping("/student-schedule")
-    public ResponseEntity<byte[]> downloadStudentSchedule() {
+    public ResponseEntity<byte[]> downloadStudentSchedule(WebRequest request) {
+        LocalDateTime weekStart = lessonService.getCurrentWeekStart();
+        String etag = scheduleVersion.etag(weekStart.toLocalDate());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
         List<Student> students = studentService.findAll();
-        List<ScheduledLesson> schedule = lessonService.getCurrentWeekLessons();
+        List<ScheduledLesson> schedule = lessonService.getWeekLessons(weekStart);
 
         byte[] report = excelReportService.generateStudentScheduleReport(schedule, students);
 
         return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=student_schedule.xlsx")
                 .body(report);
     }
 
     @GetMapping("/teacher-schedule")
-    public ResponseEntity<byte[]> downloadTeacherSchedule() {
+    public ResponseEntity<byte[]> downloadTeacherSchedule(WebRequest request) {
+        LocalDateTime weekStart = lessonService.getCurrentWeekStart();
+        String etag = scheduleVersion.etag(weekStart.toLocalDate());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
         List<Teacher> teachers = teacherService.findAll();
-        List<ScheduledLesson> schedule = lessonService.getCurrentWeekLessons();
+        List<ScheduledLesson> schedule = lessonService.getWeekLessons(weekStart);
 
         byte[] report = excelReportService.generateTeacherScheduleReport(schedule, teachers);
 
         return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=teacher_schedule.xlsx")
                 .body(report);
     }
 
     @GetMapping("/classroom-schedule")
-    public ResponseEntity<byte[]> downloadClassroomSchedule() {
+    public ResponseEntity<byte[]> downloadClassroomSchedule(WebRequest request) {
+        LocalDateTime weekStart = lessonService.getCurrentWeekStart();
+        String etag = scheduleVersion.etag(weekStart.toLocalDate());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
         List<Classroom> classrooms = classroomService.findAll();
-        List<ScheduledLesson> schedule = lessonService.getCurrentWeekLessons();
+        List<ScheduledLesson> schedule = lessonService.getWeekLessons(weekStart);
 
         byte[] report = excelReportService.generateClassroomScheduleReport(schedule, classrooms);
 
         return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=classroom_schedule.xlsx")
                 .body(report);
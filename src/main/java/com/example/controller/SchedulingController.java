@@ -1,15 +1,30 @@
 package com.example.controller;
 
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+import com.example.db.ScheduleRun;
+import com.example.dto.ScheduleRepairResponseDto;
+import com.example.dto.SchedulingJobDto;
 import com.example.dto.SchedulingResponseDto;
+import com.example.exception.ScheduleConflictException;
+import com.example.service.ScheduleRunService;
+import com.example.service.SchedulingJobService;
+import com.example.service.SchedulingProgressService;
 import com.example.service.SchedulingService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -19,6 +34,15 @@ public class SchedulingController {
     @Autowired
     private SchedulingService schedulingService;
 
+    @Autowired
+    private SchedulingProgressService progressService;
+
+    @Autowired
+    private SchedulingJobService jobService;
+
+    @Autowired
+    private ScheduleRunService runService;
+
     @PostMapping("/generate")
     public ResponseEntity<SchedulingResponseDto> generateSchedule() {
         try {
@@ -29,4 +53,60 @@ public class SchedulingController {
             throw new ResponseStatusException(HttpStatusCode.valueOf(400), e.getMessage());
         }
     }
+
+    /**
+     * Queues a schedule generation and answers right away, poll the returned job for its result.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<SchedulingJobDto> submitJob() {
+        SchedulingJobDto job = jobService.submit();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/scheduling/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<SchedulingJobDto> getJob(@PathVariable UUID id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/repair")
+    public ResponseEntity<ScheduleRepairResponseDto> repairSchedule() {
+        try {
+            ScheduleRepairResponseDto result = schedulingService.repairSchedule();
+            return ResponseEntity.ok(result);
+        } catch (ScheduleConflictException e) {
+            throw new ResponseStatusException(HttpStatusCode.valueOf(409), e.getMessage());
+        } catch (Exception e) {
+            log.warn("Failed to repair schedule", e);
+            throw new ResponseStatusException(HttpStatusCode.valueOf(400), e.getMessage());
+        }
+    }
+
+    @GetMapping("/runs")
+    public List<ScheduleRun> getRuns() {
+        return runService.findAll();
+    }
+
+    /**
+     * Makes the schedule run before the live one live again.
+     */
+    @PostMapping("/runs/rollback")
+    public ScheduleRun rollback() {
+        return runService.rollback();
+    }
+
+    @GetMapping(value = "/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress() {
+        return progressService.subscribe();
+    }
+
+    @PostMapping("/cancel")
+    public ResponseEntity<Void> cancelGeneration() {
+        return progressService.cancelRun()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
 } 
\ No newline at end of file
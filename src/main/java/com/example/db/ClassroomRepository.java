@@ -1,8 +1,11 @@
 package com.example.db;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ClassroomRepository extends JpaRepository<Classroom, Long> {
+    List<Classroom> findAllByOrderById();
 } 
\ No newline at end of file
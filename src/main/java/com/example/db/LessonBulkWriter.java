@@ -0,0 +1,107 @@
+package com.example.db;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.example.dto.ScheduledLesson;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Writes whole schedules with a handful of set-based statements instead of one JPA insert per row.
+ * <p>
+ * Lesson ids are taken from {@code lessons_id_seq} for the whole schedule in one query, so the lessons and their
+ * students are known up front and each table is filled by a single {@code INSERT ... SELECT FROM unnest(...)} over
+ * column arrays, one round trip however large the week is. Runs in the caller's transaction and bypasses the
+ * persistence context, so lessons loaded before in the same transaction are stale afterwards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LessonBulkWriter {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the lessons of a run with their students and returns the new ids in lesson order.
+     */
+    public List<Long> insert(long runId, List<ScheduledLesson> lessons) {
+        if (lessons.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = jdbcTemplate.queryForList("SELECT nextval('lessons_id_seq') FROM generate_series(1, ?)",
+                Long.class, lessons.size());
+
+        int count = lessons.size();
+        Timestamp[] starts = new Timestamp[count];
+        Timestamp[] ends = new Timestamp[count];
+        Long[] classroomIds = new Long[count];
+        Long[] teacherIds = new Long[count];
+        Long[] subjectIds = new Long[count];
+        List<Long> studentLessonIds = new ArrayList<>();
+        List<Long> studentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ScheduledLesson lesson = lessons.get(i);
+            starts[i] = Timestamp.valueOf(lesson.getDateStart());
+            ends[i] = Timestamp.valueOf(lesson.getDateEnd());
+            classroomIds[i] = lesson.getClassroomId();
+            teacherIds[i] = lesson.getTeacherId();
+            subjectIds[i] = lesson.getSubjectId();
+            for (Long studentId : lesson.getStudentIds()) {
+                studentLessonIds.add(ids.get(i));
+                studentIds.add(studentId);
+            }
+        }
+
+        jdbcTemplate.update("INSERT INTO lessons "
+                + "(id, run_id, date_start, date_end, classroom_id, teacher_id, subject_id) "
+                + "SELECT l.id, ?, l.date_start, l.date_end, l.classroom_id, l.teacher_id, l.subject_id "
+                + "FROM unnest(?, ?, ?, ?, ?, ?) AS l(id, date_start, date_end, classroom_id, teacher_id, subject_id)",
+                statement -> {
+                    statement.setLong(1, runId);
+                    statement.setArray(2, array(statement, "bigint", ids.toArray()));
+                    statement.setArray(3, array(statement, "timestamp", starts));
+                    statement.setArray(4, array(statement, "timestamp", ends));
+                    statement.setArray(5, array(statement, "bigint", classroomIds));
+                    statement.setArray(6, array(statement, "bigint", teacherIds));
+                    statement.setArray(7, array(statement, "bigint", subjectIds));
+                });
+        insertStudents(studentLessonIds, studentIds);
+        return ids;
+    }
+
+    /**
+     * Deletes all lessons of the runs with one statement per table, without a cascade per lesson.
+     */
+    public void deleteRunLessons(Collection<Long> runIds) {
+        if (runIds.isEmpty()) {
+            return;
+        }
+        deleteByIds("DELETE FROM lesson_students ls USING lessons l "
+                + "WHERE l.id = ls.lesson_id AND l.run_id = ANY(?)", runIds);
+        deleteByIds("DELETE FROM lessons WHERE run_id = ANY(?)", runIds);
+    }
+
+    private void deleteByIds(String sql, Collection<Long> ids) {
+        jdbcTemplate.update(sql, statement -> statement.setArray(1, array(statement, "bigint", ids.toArray())));
+    }
+
+    private void insertStudents(List<Long> lessonIds, List<Long> studentIds) {
+        if (lessonIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO lesson_students (lesson_id, student_id) SELECT * FROM unnest(?, ?)",
+                statement -> {
+                    statement.setArray(1, array(statement, "bigint", lessonIds.toArray()));
+                    statement.setArray(2, array(statement, "bigint", studentIds.toArray()));
+                });
+    }
+
+    private static Array array(PreparedStatement statement, String type, Object[] values) throws SQLException {
+        return statement.getConnection().createArrayOf(type, values);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.db;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.dto.ScheduledLesson;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the lessons of the live run as {@link ScheduledLesson}s with one query.
+ * <p>
+ * The students of each lesson are aggregated into id and name arrays by the database, so a week costs one round trip
+ * instead of a lazy student load per lesson. Students are listed by id.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LessonWeekReader {
+    private static final String SELECT_LIVE_LESSONS = "SELECT l.id, l.date_start, l.date_end, "
+            + "c.id AS classroom_id, c.name AS classroom_name, "
+            + "t.id AS teacher_id, t.name AS teacher_name, t.surname AS teacher_surname, "
+            + "sub.id AS subject_id, sub.name AS subject_name, sub.level AS subject_level, "
+            + "array_agg(st.id ORDER BY st.id) FILTER (WHERE st.id IS NOT NULL) AS student_ids, "
+            + "array_agg(st.name || ' ' || st.surname ORDER BY st.id) FILTER (WHERE st.id IS NOT NULL) "
+            + "AS student_names "
+            + "FROM lessons l "
+            + "JOIN schedule_runs r ON r.id = l.run_id AND r.live "
+            + "JOIN classrooms c ON c.id = l.classroom_id "
+            + "JOIN teachers t ON t.id = l.teacher_id "
+            + "JOIN subjects sub ON sub.id = l.subject_id "
+            + "LEFT JOIN lesson_students ls ON ls.lesson_id = l.id "
+            + "LEFT JOIN students st ON st.id = ls.student_id ";
+    private static final String GROUP_AND_ORDER = "GROUP BY l.id, c.id, t.id, sub.id ORDER BY l.date_start, l.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lessons of the live run starting between the two times, both included, ordered by start.
+     */
+    public List<ScheduledLesson> findLiveLessons(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.query(SELECT_LIVE_LESSONS + "WHERE l.date_start BETWEEN ? AND ? " + GROUP_AND_ORDER,
+                (resultSet, row) -> toScheduledLesson(resultSet), start, end);
+    }
+
+    /**
+     * All lessons of the live run, ordered by start.
+     */
+    public List<ScheduledLesson> findLiveLessons() {
+        return jdbcTemplate.query(SELECT_LIVE_LESSONS + GROUP_AND_ORDER,
+                (resultSet, row) -> toScheduledLesson(resultSet));
+    }
+
+    private ScheduledLesson toScheduledLesson(ResultSet resultSet) throws SQLException {
+        ScheduledLesson lesson = new ScheduledLesson();
+        lesson.setId(resultSet.getLong("id"));
+        lesson.setDateStart(resultSet.getObject("date_start", LocalDateTime.class));
+        lesson.setDateEnd(resultSet.getObject("date_end", LocalDateTime.class));
+        lesson.setClassroomId(resultSet.getLong("classroom_id"));
+        lesson.setClassroomName(resultSet.getString("classroom_name"));
+        lesson.setTeacherId(resultSet.getLong("teacher_id"));
+        lesson.setTeacherName(resultSet.getString("teacher_name"));
+        lesson.setTeacherSurname(resultSet.getString("teacher_surname"));
+        lesson.setSubjectId(resultSet.getLong("subject_id"));
+        lesson.setSubjectName(resultSet.getString("subject_name"));
+        lesson.setSubjectLevel(resultSet.getObject("subject_level", Integer.class));
+        lesson.setStudentIds(toList(resultSet, "student_ids", Long[].class));
+        lesson.setStudentNames(toList(resultSet, "student_names", String[].class));
+        return lesson;
+    }
+
+    private static <T> List<T> toList(ResultSet resultSet, String column, Class<T[]> type) throws SQLException {
+        Array array = resultSet.getArray(column);
+        return array != null ? Arrays.asList(type.cast(array.getArray())) : List.of();
+    }
+}
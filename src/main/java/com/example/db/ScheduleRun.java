@@ -0,0 +1,33 @@
+package com.example.db;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * One generated schedule. Lessons belong to a run and only the lessons of the live run are shown.
+ */
+@Entity
+@Table(name = "schedule_runs")
+@Data
+public class ScheduleRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private boolean live;
+
+    /**
+     * Number of lesson edits since the run was published.
+     */
+    private long revision;
+}
@@ -0,0 +1,40 @@
+package com.example.db;
+
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduleRunRepository extends JpaRepository<ScheduleRun, Long> {
+    Optional<ScheduleRun> findByLiveTrue();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ScheduleRun r WHERE r.live = true")
+    Optional<ScheduleRun> findLiveForUpdate();
+
+    Optional<ScheduleRun> findFirstByIdLessThanOrderByIdDesc(Long id);
+
+    List<ScheduleRun> findAllByOrderByIdDesc();
+
+    @Query("SELECT r.id FROM ScheduleRun r WHERE r.live = false ORDER BY r.id DESC")
+    List<Long> findNotLiveIdsNewestFirst();
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ScheduleRun r SET r.live = false WHERE r.live = true")
+    void clearLive();
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ScheduleRun r SET r.live = true WHERE r.id = :id")
+    void setLive(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ScheduleRun r SET r.revision = r.revision + 1 WHERE r.id = :id")
+    void incrementRevision(@Param("id") Long id);
+}
@@ -1,8 +1,15 @@
 package com.example.db;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
-} 
\ No newline at end of file
+    @EntityGraph(attributePaths = "subjects")
+    @Query("SELECT s FROM Student s ORDER BY s.id")
+    List<Student> findAllWithSubjects();
+}
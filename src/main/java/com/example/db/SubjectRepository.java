@@ -3,7 +3,9 @@ package com.example.db;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,4 +13,8 @@ public interface SubjectRepository extends JpaRepository<Subject, Long> {
     Optional<Subject> findFirstByNameAndLevel(String name, Integer level);
 
     List<Subject> findAllByLevel(int level);
+
+    @EntityGraph(attributePaths = "teachers")
+    @Query("SELECT s FROM Subject s ORDER BY s.id")
+    List<Subject> findAllWithTeachers();
 }
\ No newline at end of file
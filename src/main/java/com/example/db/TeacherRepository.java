@@ -1,8 +1,15 @@
 package com.example.db;
 
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TeacherRepository extends JpaRepository<Teacher, Long> {
-} 
\ No newline at end of file
+    @EntityGraph(attributePaths = "subjects")
+    @Query("SELECT t FROM Teacher t ORDER BY t.id")
+    List<Teacher> findAllWithSubjects();
+}
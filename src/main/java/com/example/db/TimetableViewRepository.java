@@ -0,0 +1,47 @@
+package com.example.db;
+
+import java.util.List;
+
+import com.example.dto.StudentScheduleDto;
+import com.example.dto.TeacherScheduleDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads and refreshes the materialized timetable views of the live run.
+ * <p>
+ * {@code mv_student_timetable} and {@code mv_teacher_timetable} hold finished timetable rows, so a timetable is one
+ * range scan of the view's unique index instead of a five-table join. The views only change on {@link #refresh()}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TimetableViewRepository {
+    private static final BeanPropertyRowMapper<StudentScheduleDto> STUDENT_ROWS =
+            new BeanPropertyRowMapper<>(StudentScheduleDto.class);
+    private static final BeanPropertyRowMapper<TeacherScheduleDto> TEACHER_ROWS =
+            new BeanPropertyRowMapper<>(TeacherScheduleDto.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<StudentScheduleDto> findStudentSchedule(Long studentId) {
+        return jdbcTemplate.query("SELECT date_start AS start, date_end AS \"end\", subject_name, subject_level, "
+                + "teacher_name, classroom_name FROM mv_student_timetable WHERE student_id = ? "
+                + "ORDER BY date_start", STUDENT_ROWS, studentId);
+    }
+
+    public List<TeacherScheduleDto> findTeacherSchedule(Long teacherId) {
+        return jdbcTemplate.query("SELECT date_start AS start, date_end AS \"end\", subject_name, subject_level, "
+                + "classroom_name, teacher_name FROM mv_teacher_timetable WHERE teacher_id = ? "
+                + "ORDER BY date_start", TEACHER_ROWS, teacherId);
+    }
+
+    /**
+     * Recomputes both views without blocking readers, they keep seeing the previous rows until the refresh commits.
+     */
+    public void refresh() {
+        jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY mv_student_timetable");
+        jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY mv_teacher_timetable");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import lombok.Data;
+
+@Data
+public class ScheduleRepairResponseDto {
+    private Long runId;
+    private String problems;
+    private int keptLessons;
+    private int updatedLessons;
+    private int removedLessons;
+    private int addedLessons;
+}
@@ -0,0 +1,32 @@
+package com.example.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.Data;
+
+@Data
+public class SchedulingJobDto {
+    private UUID id;
+    private Status status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * Result of a succeeded job.
+     */
+    private SchedulingResponseDto result;
+
+    /**
+     * Reason a failed job did not produce a schedule.
+     */
+    private String error;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -4,5 +4,15 @@ import lombok.Data;
 
 @Data
 public class SchedulingResponseDto {
+    /**
+     * Schedule run the lessons were published as.
+     */
+    private Long runId;
+
     private String problems;
+
+    /**
+     * Whether the run was cancelled and the saved schedule is the best one found until then.
+     */
+    private boolean cancelled;
 } 
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.example.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class StudentScheduleDto {
     private LocalDateTime start;
     private LocalDateTime end;
@@ -2,9 +2,13 @@ package com.example.dto;
 
 import java.time.LocalDateTime;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TeacherScheduleDto {
     private LocalDateTime start;
     private LocalDateTime end;
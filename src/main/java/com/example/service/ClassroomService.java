@@ -3,6 +3,7 @@ package com.example.service;
 import com.example.db.Classroom;
 import com.example.db.ClassroomRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +15,7 @@ import java.util.Optional;
 public class ClassroomService {
     
     private final ClassroomRepository classroomRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<Classroom> findAll() {
         return classroomRepository.findAll();
@@ -28,11 +30,14 @@ public class ClassroomService {
     }
     
     public Classroom save(Classroom classroom) {
-        return classroomRepository.save(classroom);
+        Classroom saved = classroomRepository.save(classroom);
+        eventPublisher.publishEvent(new RosterChangedEvent());
+        return saved;
     }
     
     public void deleteById(Long id) {
         classroomRepository.deleteById(id);
+        eventPublisher.publishEvent(new RosterChangedEvent());
     }
     
     public Classroom getReferenceById(Long id) {
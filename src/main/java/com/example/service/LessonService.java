@@ -4,108 +4,124 @@ import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.example.db.Lesson;
 import com.example.db.LessonRepository;
-import com.example.db.Student;
+import com.example.db.LessonWeekReader;
+import com.example.db.TimetableViewRepository;
 import com.example.dto.ScheduledLesson;
 import com.example.dto.StudentScheduleDto;
 import com.example.dto.TeacherScheduleDto;
+import com.example.service.timetable.Timetable;
+import com.example.service.timetable.TimetableCache;
+import com.example.service.timetable.TimetableViewRefresher;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class LessonService {
     private final LessonRepository lessonRepository;
+    private final LessonWeekReader lessonWeekReader;
+    private final TimetableViewRepository timetableViewRepository;
+    private final ScheduleRunService runService;
+    private final TimetableCache timetableCache;
+    private final TimetableViewRefresher timetableViewRefresher;
+    private final ScheduleVersion scheduleVersion;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<Lesson> findAll() {
-        return lessonRepository.findAll();
+        return lessonRepository.findByRun_LiveTrue();
     }
     
     public Optional<Lesson> findById(Long id) {
         return lessonRepository.findById(id);
     }
     
+    /**
+     * Saves the lesson, a lesson without a run is added to the live one. The edit is counted in the revision of the
+     * run.
+     */
+    @Transactional
     public Lesson save(Lesson lesson) {
-        return lessonRepository.save(lesson);
+        if (lesson.getRun() == null) {
+            lesson.setRun(runService.getLiveRun());
+        }
+        runService.recordLessonChange(lesson.getRun().getId());
+        Lesson saved = lessonRepository.save(lesson);
+        eventPublisher.publishEvent(new ScheduleChangedEvent());
+        return saved;
     }
-    
+
+    @Transactional
     public void deleteById(Long id) {
-        lessonRepository.deleteById(id);
+        lessonRepository.findById(id).ifPresent(lesson -> {
+            runService.recordLessonChange(lesson.getRun().getId());
+            lessonRepository.delete(lesson);
+            eventPublisher.publishEvent(new ScheduleChangedEvent());
+        });
     }
 
-    public List<StudentScheduleDto> getStudentSchedule(Long studentId) {
-        // Get lessons for this student from the database
-        List<Lesson> lessons = lessonRepository.findByStudentIdOrderByDateStart(studentId);
-
-        // Convert lessons to StudentScheduleDto
-        return lessons.stream()
-                .map(lesson -> {
-                    StudentScheduleDto dto = new StudentScheduleDto();
-                    dto.setStart(lesson.getDateStart());
-                    dto.setEnd(lesson.getDateEnd());
-                    dto.setSubjectName(lesson.getSubject().getName());
-                    dto.setSubjectLevel(lesson.getSubject().getLevel());
-                    dto.setTeacherName(lesson.getTeacher().getName() + " " + lesson.getTeacher().getSurname());
-                    dto.setClassroomName(lesson.getClassroom().getName());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    /**
+     * Where the student and teacher timetables are read from now: the cached timetable, or the materialized views
+     * when the live run is too large to be cached. The source carries the ETag of its data, read both from the same
+     * source so the data is never older than its ETag.
+     */
+    public TimetableSource getTimetableSource() {
+        return timetableCache.get()
+                .map(timetable -> new TimetableSource(timetable, scheduleVersion.etag(timetable.version())))
+                .orElseGet(() -> new TimetableSource(null, timetableViewRefresher.etag()));
     }
 
-    public List<TeacherScheduleDto> getTeacherSchedule(Long teacherId) {
-        // Get lessons for this student from the database
-        List<Lesson> lessons = lessonRepository.findByTeacher_IdOrderByDateStart(teacherId);
+    public List<StudentScheduleDto> getStudentSchedule(TimetableSource source, Long studentId) {
+        if (source.timetable() == null) {
+            return timetableViewRepository.findStudentSchedule(studentId);
+        }
+        return source.timetable().studentLessons(studentId).stream()
+                .map(lesson -> new StudentScheduleDto(lesson.getDateStart(), lesson.getDateEnd(),
+                        lesson.getSubjectName(), lesson.getSubjectLevel(), teacherFullName(lesson),
+                        lesson.getClassroomName()))
+                .toList();
+    }
 
-        // Convert lessons to StudentScheduleDto
-        return lessons.stream()
-                .map(lesson -> {
-                    TeacherScheduleDto dto = new TeacherScheduleDto();
-                    dto.setStart(lesson.getDateStart());
-                    dto.setEnd(lesson.getDateEnd());
-                    dto.setSubjectName(lesson.getSubject().getName());
-                    dto.setSubjectLevel(lesson.getSubject().getLevel());
-                    dto.setTeacherName(lesson.getTeacher().getName() + " " + lesson.getTeacher().getSurname());
-                    dto.setClassroomName(lesson.getClassroom().getName());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+    public List<TeacherScheduleDto> getTeacherSchedule(TimetableSource source, Long teacherId) {
+        if (source.timetable() == null) {
+            return timetableViewRepository.findTeacherSchedule(teacherId);
+        }
+        return source.timetable().teacherLessons(teacherId).stream()
+                .map(lesson -> new TeacherScheduleDto(lesson.getDateStart(), lesson.getDateEnd(),
+                        lesson.getSubjectName(), lesson.getSubjectLevel(), lesson.getClassroomName(),
+                        teacherFullName(lesson)))
+                .toList();
     }
 
-    public List<ScheduledLesson> getCurrentWeekLessons() {
-        LocalDateTime weekStart = getCurrentWeekStart();
+    /**
+     * Lessons of the live run in the week starting at the given time, Monday to Friday.
+     */
+    public List<ScheduledLesson> getWeekLessons(LocalDateTime weekStart) {
         LocalDateTime weekEnd = weekStart.plusDays(5);
-
-        return lessonRepository.findByDateStartBetweenOrderByDateStart(weekStart, weekEnd).stream()
-                .map(this::convertToScheduledLesson)
-                .collect(Collectors.toList());
+        return timetableCache.get()
+                .map(timetable -> timetable.lessonsBetween(weekStart, weekEnd))
+                .orElseGet(() -> lessonWeekReader.findLiveLessons(weekStart, weekEnd));
     }
 
-    private LocalDateTime getCurrentWeekStart() {
+    /**
+     * Monday 8:00 of the current week.
+     */
+    public LocalDateTime getCurrentWeekStart() {
         LocalDateTime now = LocalDateTime.now();
         return now.with(DayOfWeek.MONDAY).withHour(8).withMinute(0).withSecond(0).withNano(0);
     }
 
-    private ScheduledLesson convertToScheduledLesson(Lesson lesson) {
-        ScheduledLesson scheduledLesson = new ScheduledLesson();
-        scheduledLesson.setDateStart(lesson.getDateStart());
-        scheduledLesson.setDateEnd(lesson.getDateEnd());
-        scheduledLesson.setClassroomId(lesson.getClassroom().getId());
-        scheduledLesson.setClassroomName(lesson.getClassroom().getName());
-        scheduledLesson.setTeacherId(lesson.getTeacher().getId());
-        scheduledLesson.setTeacherName(lesson.getTeacher().getName());
-        scheduledLesson.setTeacherSurname(lesson.getTeacher().getSurname());
-        scheduledLesson.setSubjectId(lesson.getSubject().getId());
-        scheduledLesson.setSubjectName(lesson.getSubject().getName());
-        scheduledLesson.setSubjectLevel(lesson.getSubject().getLevel());
-        scheduledLesson.setStudentIds(lesson.getStudents().stream()
-                .map(Student::getId)
-                .collect(Collectors.toList()));
-        scheduledLesson.setStudentNames(lesson.getStudents().stream()
-                .map(s -> s.getName() + " " + s.getSurname())
-                .collect(Collectors.toList()));
-        return scheduledLesson;
+    private static String teacherFullName(ScheduledLesson lesson) {
+        return lesson.getTeacherName() + " " + lesson.getTeacherSurname();
+    }
+
+    /**
+     * The cached timetable to read from, or {@code null} for the materialized views, with the ETag of that data.
+     */
+    public record TimetableSource(Timetable timetable, String etag) {
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package com.example.service;
+
+/**
+ * Published when students, teachers, subjects or classrooms are created, changed or deleted.
+ */
+public record RosterChangedEvent() {
+}
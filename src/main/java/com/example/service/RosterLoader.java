@@ -0,0 +1,42 @@
+package com.example.service;
+
+import java.util.List;
+
+import com.example.db.Classroom;
+import com.example.db.ClassroomRepository;
+import com.example.db.Student;
+import com.example.db.StudentRepository;
+import com.example.db.Subject;
+import com.example.db.SubjectRepository;
+import com.example.db.Teacher;
+import com.example.db.TeacherRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads everything a scheduling run reads in four queries, whatever the size of the roster.
+ * <p>
+ * Teachers and students come with their subjects and subjects with their teachers, fetched through entity graphs
+ * instead of one lazy load per entity. All four queries share one persistence context, so every subject is a single
+ * instance that already knows its teachers. Rows are ordered by id, which keeps the problem indices and with them the
+ * schedule reproducible.
+ */
+@Service
+@RequiredArgsConstructor
+public class RosterLoader {
+    private final TeacherRepository teacherRepository;
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final ClassroomRepository classroomRepository;
+
+    @Transactional(readOnly = true)
+    public Roster load() {
+        return new Roster(teacherRepository.findAllWithSubjects(), studentRepository.findAllWithSubjects(),
+                subjectRepository.findAllWithTeachers(), classroomRepository.findAllByOrderById());
+    }
+
+    public record Roster(List<Teacher> teachers, List<Student> students, List<Subject> subjects,
+            List<Classroom> classrooms) {
+    }
+}
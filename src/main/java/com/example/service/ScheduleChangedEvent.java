@@ -0,0 +1,7 @@
+package com.example.service;
+
+/**
+ * Published when a schedule run goes live or a lesson of the live run is created, changed or deleted.
+ */
+public record ScheduleChangedEvent() {
+}
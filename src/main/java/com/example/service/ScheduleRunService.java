@@ -0,0 +1,128 @@
+package com.example.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.example.config.SchedulerProperties;
+import com.example.db.LessonBulkWriter;
+import com.example.db.ScheduleRun;
+import com.example.db.ScheduleRunRepository;
+import com.example.dto.ScheduledLesson;
+import com.example.exception.ScheduleConflictException;
+import com.example.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Publishes generated schedules as runs.
+ * <p>
+ * A new schedule never touches the lessons on display: it is written as a run of its own and then made live by moving
+ * the live flag, both in one transaction, so readers see either the old or the new week and never a half-written one.
+ * The runs before the live one stay for {@link #rollback()} until {@code scheduler.runs.retained} newer ones exist.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScheduleRunService {
+    private final ScheduleRunRepository runRepository;
+    private final LessonBulkWriter lessonBulkWriter;
+    private final SchedulerProperties schedulerProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<ScheduleRun> findAll() {
+        return runRepository.findAllByOrderByIdDesc();
+    }
+
+    @Transactional(readOnly = true)
+    public ScheduleRun getLiveRun() {
+        return findLiveRun()
+                .orElseThrow(() -> new IllegalStateException("No schedule run is live"));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ScheduleRun> findLiveRun() {
+        return runRepository.findByLiveTrue();
+    }
+
+    /**
+     * Counts a lesson edit of the run. Call it before the lesson is written, the row lock it takes orders the edit
+     * against {@link #publish(List, ScheduleRun)}.
+     */
+    @Transactional
+    public void recordLessonChange(Long runId) {
+        runRepository.incrementRevision(runId);
+    }
+
+    /**
+     * Writes the lessons as a new run and makes it live.
+     */
+    @Transactional
+    public ScheduleRun publish(List<ScheduledLesson> lessons) {
+        ScheduleRun run = new ScheduleRun();
+        run.setCreatedAt(LocalDateTime.now());
+        run = runRepository.save(run);
+        lessonBulkWriter.insert(run.getId(), lessons);
+        return makeLive(run);
+    }
+
+    /**
+     * Writes the lessons as a new run and makes it live, provided the live run is still {@code basedOn} in the
+     * revision it was read in, {@code null} meaning no run was live. Otherwise nothing is written and a
+     * {@link ScheduleConflictException} is thrown, so edits made in the meantime are not overwritten.
+     */
+    @Transactional
+    public ScheduleRun publish(List<ScheduledLesson> lessons, ScheduleRun basedOn) {
+        ScheduleRun live = runRepository.findLiveForUpdate().orElse(null);
+        if (!isSameRevision(live, basedOn)) {
+            throw new ScheduleConflictException("The schedule changed while it was being repaired, repair it again");
+        }
+        return publish(lessons);
+    }
+
+    /**
+     * Makes the run before the live one live again.
+     */
+    @Transactional
+    public ScheduleRun rollback() {
+        ScheduleRun live = getLiveRun();
+        ScheduleRun previous = runRepository.findFirstByIdLessThanOrderByIdDesc(live.getId())
+                .orElseThrow(() -> new ValidationException("There is no earlier schedule run to roll back to"));
+        return makeLive(previous);
+    }
+
+    /**
+     * Deletes the runs that are neither live nor among the {@code scheduler.runs.retained} newest other runs.
+     */
+    @Transactional
+    public int removeOldRuns() {
+        List<Long> runIds = runRepository.findNotLiveIdsNewestFirst();
+        int retained = Math.max(schedulerProperties.getRuns().getRetained(), 0);
+        if (runIds.size() <= retained) {
+            return 0;
+        }
+        List<Long> expiredRunIds = runIds.subList(retained, runIds.size());
+        lessonBulkWriter.deleteRunLessons(expiredRunIds);
+        runRepository.deleteAllByIdInBatch(expiredRunIds);
+        return expiredRunIds.size();
+    }
+
+    private static boolean isSameRevision(ScheduleRun live, ScheduleRun basedOn) {
+        if (live == null || basedOn == null) {
+            return live == basedOn;
+        }
+        return Objects.equals(live.getId(), basedOn.getId()) && live.getRevision() == basedOn.getRevision();
+    }
+
+    private ScheduleRun makeLive(ScheduleRun run) {
+        // Two statements, the unique index on the live flag would reject a second live run even for a moment
+        runRepository.clearLive();
+        runRepository.setLive(run.getId());
+        run.setLive(true);
+        eventPublisher.publishEvent(new ScheduleChangedEvent());
+        return run;
+    }
+}
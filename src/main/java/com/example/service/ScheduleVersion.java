@@ -0,0 +1,68 @@
+package com.example.service;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Version of everything the timetable and report endpoints show, used for their ETags.
+ * <p>
+ * The version moves on after every committed {@link ScheduleChangedEvent} and {@link RosterChangedEvent}. It starts
+ * over with the process, so the ETag also carries an id of the process and a restart never answers a client's old ETag
+ * with 304. The ETag is weak because the same data may render to different report bytes.
+ * <p>
+ * An ETag names the version its data was read at, never a later one. Data read from the materialized views is only as
+ * recent as their last successful refresh, so it gets a {@link #viewEtag(long) view ETag} of the version that refresh
+ * covers instead.
+ * <p>
+ * The listeners run before all other listeners of these events, so those already see the new version.
+ */
+@Component
+public class ScheduleVersion {
+    private final String processId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * ETag of the current version of one week. Take it before reading the data, so a change that commits meanwhile
+     * never ends up labelled with the older version. The week tells apart reports of different weeks of the same
+     * version.
+     */
+    public String etag(LocalDate week) {
+        return "W/\"" + processId + "-" + version.get() + "-" + week + "\"";
+    }
+
+    /**
+     * ETag of data read at the given version.
+     */
+    public String etag(long version) {
+        return "W/\"" + processId + "-" + version + "\"";
+    }
+
+    /**
+     * ETag of the materialized views refreshed after the given version had been reached.
+     */
+    public String viewEtag(long version) {
+        return "W/\"" + processId + "-view-" + version + "\"";
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRosterChanged(RosterChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.config.SchedulerProperties;
+import com.example.dto.SchedulingJobDto;
+import com.example.dto.SchedulingResponseDto;
+import com.example.exception.JobQueueFullException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs schedule generation as background jobs, so a request returns right away with a job id to poll.
+ * <p>
+ * Every job gets its own virtual thread, which waits until no generation or repair runs, see
+ * {@link SchedulingService#generateScheduleWhenIdle(Runnable)}, so jobs run one at a time and also wait for
+ * synchronous runs. At most {@code scheduler.jobs.queue-capacity} jobs can wait besides the running one, further
+ * submissions are rejected. Finished jobs are kept for {@code scheduler.jobs.retention}.
+ */
+@Slf4j
+@Service
+public class SchedulingJobService {
+    private final SchedulingService schedulingService;
+    private final SchedulerProperties.Jobs properties;
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SchedulingJobService(SchedulingService schedulingService, SchedulerProperties schedulerProperties) {
+        this.schedulingService = schedulingService;
+        this.properties = schedulerProperties.getJobs();
+    }
+
+    /**
+     * Queues a generation of the current week's schedule and returns the job in its {@code QUEUED} state.
+     */
+    public SchedulingJobDto submit() {
+        removeExpiredJobs();
+        // Running and waiting jobs are counted together, so the limit does not depend on when threads start
+        if (activeJobs.incrementAndGet() > 1 + properties.getQueueCapacity()) {
+            activeJobs.decrementAndGet();
+            throw new JobQueueFullException("Too many schedule generation jobs are waiting");
+        }
+
+        Job job = new Job(UUID.randomUUID(), LocalDateTime.now());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job));
+        return job.toDto();
+    }
+
+    public Optional<SchedulingJobDto> getJob(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        try {
+            job.succeed(schedulingService.generateScheduleWhenIdle(job::start));
+        } catch (InterruptedException e) {
+            job.fail("Schedule generation job was interrupted");
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Schedule generation job {} failed", job.id, e);
+            job.fail(e.getMessage());
+        } finally {
+            activeJobs.decrementAndGet();
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime expiry = LocalDateTime.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expiry));
+    }
+
+    private static final class Job {
+        private final UUID id;
+        private final LocalDateTime submittedAt;
+        private volatile SchedulingJobDto.Status status = SchedulingJobDto.Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile SchedulingResponseDto result;
+        private volatile String error;
+
+        private Job(UUID id, LocalDateTime submittedAt) {
+            this.id = id;
+            this.submittedAt = submittedAt;
+        }
+
+        private void start() {
+            startedAt = LocalDateTime.now();
+            status = SchedulingJobDto.Status.RUNNING;
+        }
+
+        private void succeed(SchedulingResponseDto response) {
+            result = response;
+            finishedAt = LocalDateTime.now();
+            status = SchedulingJobDto.Status.SUCCEEDED;
+        }
+
+        private void fail(String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            status = SchedulingJobDto.Status.FAILED;
+        }
+
+        private SchedulingJobDto toDto() {
+            // Status is written last, so a finished status always comes with its result
+            SchedulingJobDto.Status current = status;
+            SchedulingJobDto dto = new SchedulingJobDto();
+            dto.setId(id);
+            dto.setStatus(current);
+            dto.setSubmittedAt(submittedAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setResult(result);
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.example.service.schedule.ClassroomScheduler;
+import com.example.service.schedule.SolverStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters of schedule generation, exported through {@code /actuator/prometheus}.
+ * <p>
+ * Every phase of a run is timed under {@code scheduler.phase} with a {@code phase} tag. Generation and repair share
+ * the timers, a repair reads the live week under {@code snapshot} and restores it and places the freed demand under
+ * {@code solve}. The work counters add up over all runs, the gauges hold the result of the last run.
+ */
+@Component
+public class SchedulingMetrics {
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Counter runs;
+    private final Counter pairsEvaluated;
+    private final Counter studentsScanned;
+    private final Counter lessonsPlaced;
+    private volatile RunResult lastRun = new RunResult(0, 0, 0);
+
+    public SchedulingMetrics(MeterRegistry registry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("scheduler.phase")
+                    .description("Duration of a schedule generation phase")
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        this.runs = Counter.builder("scheduler.runs")
+                .description("Finished schedule generation and repair runs")
+                .register(registry);
+        this.pairsEvaluated = Counter.builder("scheduler.pairs.evaluated")
+                .description("Student cohorts computed for a subject-teacher pair in a slot")
+                .register(registry);
+        this.studentsScanned = Counter.builder("scheduler.students.scanned")
+                .description("Students checked while computing cohorts")
+                .register(registry);
+        this.lessonsPlaced = Counter.builder("scheduler.lessons.placed")
+                .description("Lessons put on the grid, including the ones search phases take back")
+                .register(registry);
+        Gauge.builder("scheduler.unmet.units", this, metrics -> metrics.lastRun.unmetUnits())
+                .description("Lesson-units the last schedule misses")
+                .register(registry);
+        Gauge.builder("scheduler.teacher.utilization", this, metrics -> metrics.lastRun.teacherUtilization())
+                .description("Share of teacher working slots with a lesson in the last schedule")
+                .register(registry);
+        Gauge.builder("scheduler.classroom.utilization", this, metrics -> metrics.lastRun.classroomUtilization())
+                .description("Share of classroom-slots with a lesson in the last schedule")
+                .register(registry);
+    }
+
+    public <T> T time(Phase phase, Supplier<T> action) {
+        return phaseTimers.get(phase).record(action);
+    }
+
+    public void time(Phase phase, Runnable action) {
+        phaseTimers.get(phase).record(action);
+    }
+
+    /**
+     * Records the work and the result of a finished run.
+     */
+    public void recordRun(ClassroomScheduler scheduler, SolverStatistics statistics) {
+        runs.increment();
+        pairsEvaluated.increment(statistics.getPairsEvaluated());
+        studentsScanned.increment(statistics.getStudentsScanned());
+        lessonsPlaced.increment(statistics.getLessonsPlaced());
+        lastRun = new RunResult(scheduler.getUnmetUnits(), scheduler.getTeacherUtilization(),
+                scheduler.getClassroomUtilization());
+    }
+
+    public enum Phase {
+        LOAD,
+        VALIDATION,
+        BUILD,
+        SNAPSHOT,
+        SOLVE,
+        PERSIST,
+        REPORT
+    }
+
+    private record RunResult(int unmetUnits, double teacherUtilization, double classroomUtilization) {
+    }
+}
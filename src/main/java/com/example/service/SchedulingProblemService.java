@@ -0,0 +1,55 @@
+package com.example.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.service.schedule.SchedulingProblem;
+import com.example.service.validation.ScheduleValidationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the compiled {@link SchedulingProblem} of the current roster.
+ * <p>
+ * The problem is compiled and validated on the first request after a roster change and reused by every run until the
+ * next {@link RosterChangedEvent}. Changes are counted once their transaction commits, and a problem is only reused
+ * while the count it was compiled at is current, so a compilation that overlaps a change is redone on the next call.
+ */
+@Service
+@RequiredArgsConstructor
+public class SchedulingProblemService {
+    private final RosterLoader rosterLoader;
+    private final ScheduleValidationService validationService;
+    private final SchedulingMetrics metrics;
+    private final AtomicLong rosterVersion = new AtomicLong();
+    private volatile CompiledProblem compiledProblem;
+
+    @Transactional(readOnly = true)
+    public SchedulingProblem getProblem() {
+        long version = rosterVersion.get();
+        CompiledProblem current = compiledProblem;
+        if (current != null && current.version() == version) {
+            return current.problem();
+        }
+
+        RosterLoader.Roster roster = metrics.time(SchedulingMetrics.Phase.LOAD, rosterLoader::load);
+
+        // Validate requirements before compiling, an invalid roster is never cached
+        metrics.time(SchedulingMetrics.Phase.VALIDATION, () -> validationService.validateScheduleRequirements(
+                roster.teachers(), roster.students(), roster.subjects()));
+
+        SchedulingProblem problem = metrics.time(SchedulingMetrics.Phase.BUILD, () -> SchedulingProblem.of(
+                roster.students(), roster.teachers(), roster.subjects(), roster.classrooms()));
+        compiledProblem = new CompiledProblem(version, problem);
+        return problem;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRosterChanged(RosterChangedEvent event) {
+        rosterVersion.incrementAndGet();
+    }
+
+    private record CompiledProblem(long version, SchedulingProblem problem) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.config.SchedulerProperties;
+import com.example.exception.ValidationException;
+import com.example.service.schedule.SolverControl;
+import com.example.service.schedule.SolverProgress;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Tracks the running schedule generation, streams its progress to SSE subscribers and cancels it on request.
+ * Only one generation or repair runs at a time because every run replaces the whole schedule. Synchronous requests
+ * fail while a run is active, queued jobs wait for it.
+ * <p>
+ * Progress is sent from virtual threads, so a slow subscriber never holds up the solver; a subscriber that is still
+ * busy with an earlier snapshot only gets the newest one. Every stream is completed once the run ends.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchedulingProgressService {
+    private static final Duration SUBSCRIPTION_TIMEOUT = Duration.ofMinutes(30);
+
+    private final SchedulerProperties schedulerProperties;
+    private final Semaphore runLock = new Semaphore(1, true);
+    private final AtomicReference<SolverControl> activeRun = new AtomicReference<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile SolverProgress lastProgress;
+
+    /**
+     * Registers a new run and returns the control the solver reports to. Fails when another run is active.
+     */
+    public SolverControl startRun() {
+        if (!runLock.tryAcquire()) {
+            throw new ValidationException("Schedule generation is already running");
+        }
+        return begin();
+    }
+
+    /**
+     * Waits until no other run is active, then registers a new run like {@link #startRun()}.
+     */
+    public SolverControl awaitRun() throws InterruptedException {
+        runLock.acquire();
+        return begin();
+    }
+
+    private SolverControl begin() {
+        SolverControl control = new SolverControl(this::broadcast,
+                schedulerProperties.getProgress().getInterval());
+        lastProgress = null;
+        activeRun.set(control);
+        return control;
+    }
+
+    /**
+     * Ends the run and completes the open progress streams after their last snapshot.
+     */
+    public void finishRun(SolverControl control) {
+        if (activeRun.compareAndSet(control, null)) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.finish();
+            }
+            runLock.release();
+        }
+    }
+
+    /**
+     * Asks the running generation to stop and keep its best schedule. Returns {@code false} when nothing runs.
+     */
+    public boolean cancelRun() {
+        SolverControl control = activeRun.get();
+        if (control == null) {
+            return false;
+        }
+        control.cancel();
+        return true;
+    }
+
+    /**
+     * Opens a progress stream. The latest snapshot of the current run is sent right away, without a running
+     * generation the stream waits for the next one.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        SolverProgress progress = lastProgress;
+        if (progress != null && activeRun.get() != null) {
+            subscriber.offer(progress);
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void broadcast(SolverProgress progress) {
+        lastProgress = progress;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(progress);
+        }
+    }
+
+    /**
+     * One progress stream. At most one send per stream is in flight, snapshots that arrive meanwhile replace each
+     * other.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<SolverProgress> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean finished;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(SolverProgress progress) {
+            pending.set(progress);
+            schedule();
+        }
+
+        private void finish() {
+            finished = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            do {
+                SolverProgress progress;
+                while ((progress = pending.getAndSet(null)) != null) {
+                    if (!send(progress)) {
+                        return;
+                    }
+                }
+                if (finished) {
+                    // The last snapshot is offered before the run finishes, so it is visible here
+                    progress = pending.getAndSet(null);
+                    if (progress == null || send(progress)) {
+                        emitter.complete();
+                    }
+                    subscribers.remove(this);
+                    return;
+                }
+                draining.set(false);
+            } while ((pending.get() != null || finished) && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(SolverProgress progress) {
+            try {
+                emitter.send(SseEmitter.event().name("progress").data(progress));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping progress subscriber", e);
+                subscribers.remove(this);
+                return false;
+            }
+        }
+    }
+}
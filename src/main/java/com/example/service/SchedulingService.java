@@ -2,154 +2,240 @@ package com.example.service;
 
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import com.example.db.Classroom;
-import com.example.db.Lesson;
-import com.example.db.LessonRepository;
-import com.example.db.Student;
-import com.example.db.Subject;
-import com.example.db.Teacher;
+import com.example.config.SchedulerProperties;
+import com.example.db.LessonWeekReader;
+import com.example.db.ScheduleRun;
+import com.example.dto.ScheduleRepairResponseDto;
 import com.example.dto.ScheduledLesson;
 import com.example.dto.SchedulingResponseDto;
+import com.example.service.schedule.BranchAndBoundScheduler;
 import com.example.service.schedule.ClassroomScheduler;
-import com.example.service.validation.ScheduleValidationService;
+import com.example.service.schedule.MultiStartScheduler;
+import com.example.service.schedule.RequirementMatrix;
+import com.example.service.schedule.SchedulingProblem;
+import com.example.service.schedule.SolverControl;
+import com.example.service.schedule.SolverProgress;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
 public class SchedulingService {
-    private final StudentService studentService;
-    private final TeacherService teacherService;
-    private final SubjectService subjectService;
-    private final ClassroomService classroomService;
-    private final LessonRepository lessonRepository;
-    private final ScheduleValidationService validationService;
-
-    @Transactional
+    private final LessonWeekReader lessonWeekReader;
+    private final ScheduleRunService runService;
+    private final SchedulingProblemService problemService;
+    private final SchedulerProperties schedulerProperties;
+    private final SchedulingProgressService progressService;
+    private final SchedulingMetrics metrics;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Generates and saves the schedule of the current week. A run cancelled through
+     * {@link SchedulingProgressService#cancelRun()} saves the best schedule found until then.
+     * <p>
+     * No transaction spans the run: the roster is read in a short read-only transaction, the solver runs without a
+     * database connection and the lessons are published as a new schedule run in a short transaction of their own.
+     */
     public SchedulingResponseDto generateSchedule() {
-        // Get all required data
-        List<Teacher> teachers = teacherService.findAll();
-        List<Student> students = studentService.findAll();
-        List<Subject> subjects = subjectService.findAll();
-        List<Classroom> classrooms = classroomService.findAll();
+        SolverControl control = progressService.startRun();
+        try {
+            return generateSchedule(control);
+        } finally {
+            progressService.finishRun(control);
+        }
+    }
+
+    /**
+     * Generates like {@link #generateSchedule()}, but waits for a running generation or repair to finish instead of
+     * failing. {@code onStart} is called once this run has begun.
+     */
+    public SchedulingResponseDto generateScheduleWhenIdle(Runnable onStart) throws InterruptedException {
+        SolverControl control = progressService.awaitRun();
+        try {
+            onStart.run();
+            return generateSchedule(control);
+        } finally {
+            progressService.finishRun(control);
+        }
+    }
 
-        // Validate requirements before generating schedule
-        validationService.validateScheduleRequirements(teachers, students, subjects);
+    private SchedulingResponseDto generateSchedule(SolverControl control) {
+        // Get the validated problem of the current roster
+        SchedulingProblem problem = problemService.getProblem();
 
         // Initialize schedule for the week
         LocalDateTime currentWeekStart = getCurrentWeekStart();
 
-        // Create and use ClassroomScheduler to generate the schedule
-        ClassroomScheduler scheduler = new ClassroomScheduler(students, teachers, subjects, classrooms);
-        List<ScheduledLesson> schedule = scheduler.buildSchedule(currentWeekStart);
+        ClassroomScheduler scheduler = metrics.time(SchedulingMetrics.Phase.SOLVE, () -> solve(problem, control));
+        List<ScheduledLesson> schedule = scheduler.toScheduledLessons(currentWeekStart);
 
-        // Save all lessons to the database
-        saveLessonsToDatabase(schedule);
+        // Publish the lessons as the live run and drop the runs that are no longer kept
+        ScheduleRun run = metrics.time(SchedulingMetrics.Phase.PERSIST, () -> {
+            ScheduleRun published = runService.publish(schedule);
+            runService.removeOldRuns();
+            return published;
+        });
+        control.publish(scheduler.progress(SolverProgress.Phase.FINISHED, scheduler.getUnmetUnits()));
+        metrics.recordRun(scheduler, control.statistics());
 
         // Check if all requirements are met
-        String problems = buildProblemsText(scheduler, students, subjects);
+        String problems = metrics.time(SchedulingMetrics.Phase.REPORT, () -> buildProblemsText(scheduler, problem));
 
         SchedulingResponseDto response = new SchedulingResponseDto();
+        response.setRunId(run.getId());
         response.setProblems(problems);
+        response.setCancelled(control.isCancelled());
         return response;
     }
 
-    private String buildProblemsText(ClassroomScheduler scheduler, List<Student> students, List<Subject> subjects) {
-        Map<Long, Map<Long, Integer>> studentSubjectRequirements = scheduler.getStudentSubjectRequirements();
-        Map<Long, List<Long>> remainingRequirements = findStudentsNeedingLessons(studentSubjectRequirements);
-        String problems = null;
-        if (!remainingRequirements.isEmpty()) {
-            problems = buildRemainingRequirementsMessage(remainingRequirements, students, subjects,
-                    studentSubjectRequirements);
+    /**
+     * Repairs the schedule of the current week after roster changes instead of rebuilding it. Persisted lessons that
+     * are still valid stay where they are, invalid lessons and attendances are dropped, and the freed demand is placed
+     * around the kept lessons. The repaired week is published as a new run, so kept lessons get new ids as well, the
+     * response counts how it differs from the previous one.
+     * <p>
+     * Like {@link #generateSchedule()} the repair reads and writes in two short transactions and computes between
+     * them. The repair is only published when the live run has not been replaced or edited in between, otherwise a
+     * {@link com.example.exception.ScheduleConflictException} is thrown.
+     */
+    public ScheduleRepairResponseDto repairSchedule() {
+        SolverControl control = progressService.startRun();
+        try {
+            return repairSchedule(control);
+        } finally {
+            progressService.finishRun(control);
         }
-        return problems;
     }
 
-    private LocalDateTime getCurrentWeekStart() {
-        LocalDateTime now = LocalDateTime.now();
-        return now.with(DayOfWeek.MONDAY).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    private ScheduleRepairResponseDto repairSchedule(SolverControl control) {
+        LocalDateTime currentWeekStart = getCurrentWeekStart();
+        RepairSnapshot snapshot = metrics.time(SchedulingMetrics.Phase.SNAPSHOT,
+                () -> readOnlyTransaction().execute(status -> new RepairSnapshot(
+                        problemService.getProblem(),
+                        // Read before the lessons, an edit in between then fails the publish instead of being lost
+                        runService.findLiveRun().orElse(null),
+                        lessonWeekReader.findLiveLessons(currentWeekStart, currentWeekStart.plusDays(5)))));
+        SchedulingProblem problem = snapshot.problem();
+
+        ClassroomScheduler scheduler = metrics.time(SchedulingMetrics.Phase.SOLVE, () -> {
+            ClassroomScheduler repaired = new ClassroomScheduler(problem,
+                    schedulerProperties.getMaxConsecutiveLessons(), schedulerProperties.getSubjectLookahead());
+            repaired.restoreLessons(snapshot.lessons(), currentWeekStart);
+            repaired.placeFreedDemand(control);
+            return repaired;
+        });
+        scheduler.recordStatistics(control);
+        control.publish(scheduler.progress(SolverProgress.Phase.FINISHED, scheduler.getUnmetUnits()));
+        metrics.recordRun(scheduler, control.statistics());
+
+        ScheduleRepairResponseDto response = new ScheduleRepairResponseDto();
+        List<ScheduledLesson> schedule = scheduler.toScheduledLessons(currentWeekStart);
+        Map<Long, ScheduledLesson> removedLessons = snapshot.lessons().stream()
+                .collect(Collectors.toMap(ScheduledLesson::getId, Function.identity()));
+        for (ScheduledLesson scheduledLesson : schedule) {
+            ScheduledLesson persisted = scheduledLesson.getId() != null
+                    ? removedLessons.remove(scheduledLesson.getId())
+                    : null;
+            if (persisted == null) {
+                response.setAddedLessons(response.getAddedLessons() + 1);
+            } else if (hasSameStudents(persisted, scheduledLesson)) {
+                response.setKeptLessons(response.getKeptLessons() + 1);
+            } else {
+                response.setUpdatedLessons(response.getUpdatedLessons() + 1);
+            }
+        }
+        response.setRemovedLessons(removedLessons.size());
+
+        ScheduleRun run = metrics.time(SchedulingMetrics.Phase.PERSIST, () -> {
+            ScheduleRun published = runService.publish(schedule, snapshot.liveRun());
+            runService.removeOldRuns();
+            return published;
+        });
+        response.setRunId(run.getId());
+        response.setProblems(metrics.time(SchedulingMetrics.Phase.REPORT, () -> buildProblemsText(scheduler, problem)));
+        return response;
     }
 
-    private void saveLessonsToDatabase(List<ScheduledLesson> schedule) {
-        List<Lesson> lessons = schedule.stream()
-                .map(scheduledLesson -> {
-                    Lesson lesson = new Lesson();
-                    lesson.setDateStart(scheduledLesson.getDateStart());
-                    lesson.setDateEnd(scheduledLesson.getDateEnd());
-
-                    // Set classroom using getReference
-                    Classroom classroom = classroomService.getReferenceById(scheduledLesson.getClassroomId());
-                    lesson.setClassroom(classroom);
-
-                    // Set teacher using getReference
-                    Teacher teacher = teacherService.getReferenceById(scheduledLesson.getTeacherId());
-                    lesson.setTeacher(teacher);
-
-                    // Set subject using getReference
-                    Subject subject = subjectService.getReferenceById(scheduledLesson.getSubjectId());
-                    lesson.setSubject(subject);
-
-                    // Set students using getReference
-                    List<Student> students = scheduledLesson.getStudentIds().stream()
-                            .map(studentService::getReferenceById)
-                            .collect(Collectors.toList());
-                    lesson.setStudents(students);
-
-                    return lesson;
-                })
-                .collect(Collectors.toList());
-
-        lessonRepository.deleteAll();
-        lessonRepository.flush();
-        lessonRepository.saveAll(lessons);
+    private boolean hasSameStudents(ScheduledLesson persisted, ScheduledLesson scheduledLesson) {
+        return new HashSet<>(persisted.getStudentIds()).equals(new HashSet<>(scheduledLesson.getStudentIds()));
     }
 
-    private Map<Long, List<Long>> findStudentsNeedingLessons(Map<Long, Map<Long, Integer>> requirements) {
-        return requirements.entrySet().stream()
-                .filter(entry -> entry.getValue().values().stream().anyMatch(value -> value > 0))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> entry.getValue().entrySet().stream()
-                                .filter(subjectEntry -> subjectEntry.getValue() > 0)
-                                .map(Map.Entry::getKey)
-                                .collect(Collectors.toList())
-                ));
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private ClassroomScheduler solve(SchedulingProblem problem, SolverControl control) {
+        Supplier<ClassroomScheduler> schedulers = () -> new ClassroomScheduler(problem,
+                schedulerProperties.getMaxConsecutiveLessons(), schedulerProperties.getSubjectLookahead());
+        SchedulerProperties.MultiStart multiStart = schedulerProperties.getMultiStart();
+
+        if (schedulerProperties.getEngine() == SchedulerProperties.Engine.EXACT) {
+            BranchAndBoundScheduler exact = new BranchAndBoundScheduler(schedulers.get(),
+                    schedulerProperties.getExact().getTimeLimit(), control);
+            ClassroomScheduler scheduler = exact.solve();
+            improve(scheduler, control);
+            return scheduler;
+        }
+
+        // Run one or more ClassroomScheduler passes and keep the best schedule
+        ClassroomScheduler scheduler = new MultiStartScheduler(schedulers, multiStart.getThreads(),
+                multiStart.getStarts(), multiStart.getSeed(), control)
+                .solve();
+        improve(scheduler, control);
+        return scheduler;
     }
 
-    private String buildRemainingRequirementsMessage(Map<Long, List<Long>> remainingRequirements,
-            List<Student> students, List<Subject> subjects,
-            Map<Long, Map<Long, Integer>> studentSubjectRequirements) {
+    private void improve(ClassroomScheduler scheduler, SolverControl control) {
+        SchedulerProperties.LocalSearch localSearch = schedulerProperties.getLocalSearch();
+        scheduler.improve(localSearch.getMaxIterations(), localSearch.getTimeBudget(),
+                new Random(schedulerProperties.getMultiStart().getSeed()), control);
+    }
+
+    private String buildProblemsText(ClassroomScheduler scheduler, SchedulingProblem problem) {
+        if (scheduler.getUnmetUnits() == 0) {
+            return null;
+        }
+        return buildRemainingRequirementsMessage(scheduler.getRequirements(), problem);
+    }
+
+    private LocalDateTime getCurrentWeekStart() {
+        LocalDateTime now = LocalDateTime.now();
+        return now.with(DayOfWeek.MONDAY).withHour(8).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    private String buildRemainingRequirementsMessage(RequirementMatrix requirements, SchedulingProblem problem) {
         StringBuilder errorMessage =
                 new StringBuilder("Unable to schedule all required lessons. Remaining requirements:\n");
 
-        for (Map.Entry<Long, List<Long>> entry : remainingRequirements.entrySet()) {
-            Student student = students.stream()
-                    .filter(s -> s.getId().equals(entry.getKey()))
-                    .findFirst()
-                    .orElse(null);
-
-            if (student != null) {
-                errorMessage.append("\nStudent: ").append(student.getName()).append(" ").append(student.getSurname());
-                errorMessage.append("\nMissing lessons for subjects:\n");
-
-                for (Long subjectId : entry.getValue()) {
-                    Subject subject = subjects.stream()
-                            .filter(s -> s.getId().equals(subjectId))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (subject != null) {
-                        int remainingLessons = studentSubjectRequirements.get(student.getId()).get(subjectId);
-                        errorMessage.append("- ").append(subject.getName())
-                                .append(": ").append(remainingLessons)
-                                .append(" lessons remaining\n");
-                    }
+        for (int student = 0; student < problem.studentCount(); student++) {
+            boolean studentListed = false;
+            for (int subject = 0; subject < problem.subjectCount(); subject++) {
+                int remainingLessons = requirements.remaining(student, subject);
+                if (!requirements.isEnrolled(student, subject) || remainingLessons <= 0) {
+                    continue;
+                }
+
+                if (!studentListed) {
+                    errorMessage.append("\nStudent: ").append(problem.studentName(student)).append(" ")
+                            .append(problem.studentSurname(student));
+                    errorMessage.append("\nMissing lessons for subjects:\n");
+                    studentListed = true;
                 }
+                errorMessage.append("- ").append(problem.subjectName(subject))
+                        .append(": ").append(remainingLessons)
+                        .append(" lessons remaining\n");
             }
         }
 
@@ -161,34 +247,6 @@ public class SchedulingService {
         return errorMessage.toString();
     }
 
-    public List<ScheduledLesson> getCurrentWeekLessons() {
-        LocalDateTime weekStart = getCurrentWeekStart();
-        LocalDateTime weekEnd = weekStart.plusDays(5);
-
-        return lessonRepository.findByDateStartBetweenOrderByDateStart(weekStart, weekEnd).stream()
-                .map(this::convertToScheduledLesson)
-                .collect(Collectors.toList());
-    }
-
-    private ScheduledLesson convertToScheduledLesson(Lesson lesson) {
-        ScheduledLesson scheduledLesson = new ScheduledLesson();
-        scheduledLesson.setId(lesson.getId());
-        scheduledLesson.setDateStart(lesson.getDateStart());
-        scheduledLesson.setDateEnd(lesson.getDateEnd());
-        scheduledLesson.setClassroomId(lesson.getClassroom().getId());
-        scheduledLesson.setClassroomName(lesson.getClassroom().getName());
-        scheduledLesson.setTeacherId(lesson.getTeacher().getId());
-        scheduledLesson.setTeacherName(lesson.getTeacher().getName());
-        scheduledLesson.setTeacherSurname(lesson.getTeacher().getSurname());
-        scheduledLesson.setSubjectId(lesson.getSubject().getId());
-        scheduledLesson.setSubjectName(lesson.getSubject().getName());
-        scheduledLesson.setSubjectLevel(lesson.getSubject().getLevel());
-        scheduledLesson.setStudentIds(lesson.getStudents().stream()
-                .map(Student::getId)
-                .toList());
-        scheduledLesson.setStudentNames(lesson.getStudents().stream()
-                .map(student -> student.getName() + " " + student.getSurname())
-                .toList());
-        return scheduledLesson;
+    private record RepairSnapshot(SchedulingProblem problem, ScheduleRun liveRun, List<ScheduledLesson> lessons) {
     }
 } 
\ No newline at end of file
@@ -12,6 +12,7 @@ import com.example.db.SubjectRepository;
 import com.example.exception.ValidationException;
 import com.example.service.student.StudentCreateDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 public class StudentService {
 
     private final StudentRepository studentRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final SubjectRepository subjectRepository;
 
     public List<Student> findAll() {
@@ -34,11 +36,14 @@ public class StudentService {
     }
 
     public Student save(Student student) {
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(new RosterChangedEvent());
+        return saved;
     }
 
     public void deleteById(Long id) {
         studentRepository.deleteById(id);
+        eventPublisher.publishEvent(new RosterChangedEvent());
     }
 
     public Student getReferenceById(Long id) {
@@ -68,5 +73,6 @@ public class StudentService {
         entity.setSubjects(subjects);
 
         studentRepository.save(entity);
+        eventPublisher.publishEvent(new RosterChangedEvent());
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import com.example.controller.dto.SubjectDto;
 import com.example.db.Subject;
 import com.example.db.SubjectRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 public class SubjectService {
 
     private final SubjectRepository subjectRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Subject> findAll() {
         return subjectRepository.findAll();
@@ -28,11 +30,14 @@ public class SubjectService {
     }
 
     public Subject save(Subject subject) {
-        return subjectRepository.save(subject);
+        Subject saved = subjectRepository.save(subject);
+        eventPublisher.publishEvent(new RosterChangedEvent());
+        return saved;
     }
 
     public void deleteById(Long id) {
         subjectRepository.deleteById(id);
+        eventPublisher.publishEvent(new RosterChangedEvent());
     }
 
     public Subject getReferenceById(Long id) {
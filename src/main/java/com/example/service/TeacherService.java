@@ -12,6 +12,7 @@ import com.example.db.TeacherRepository;
 import com.example.service.teacher.TeacherCreateDto;
 import com.example.service.teacher.TeacherSubject;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class TeacherService {
 
     private final TeacherRepository teacherRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Teacher> findAll() {
         return teacherRepository.findAll();
@@ -34,11 +36,14 @@ public class TeacherService {
     }
 
     public Teacher save(Teacher teacher) {
-        return teacherRepository.save(teacher);
+        Teacher saved = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new RosterChangedEvent());
+        return saved;
     }
 
     public void deleteById(Long id) {
         teacherRepository.deleteById(id);
+        eventPublisher.publishEvent(new RosterChangedEvent());
     }
 
     public Teacher getReferenceById(Long id) {
@@ -56,7 +61,7 @@ public class TeacherService {
 
         entity.setSubjects(createSubjects(createDto.subjects(), entity));
         teacherRepository.save(entity);
-        return;
+        eventPublisher.publishEvent(new RosterChangedEvent());
     }
 
     private Set<Subject> createSubjects(List<TeacherSubject> createDto, Teacher teacher) {
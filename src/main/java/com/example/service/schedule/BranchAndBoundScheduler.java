@@ -0,0 +1,299 @@
+package com.example.service.schedule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Exact scheduling engine: depth-first branch and bound over (slot, classroom) variables.
+ * <p>
+ * A slot is branched on by placing one more lesson in it: a subject-teacher pair that can teach there together with
+ * a free classroom, or by leaving the rest of the slot empty. The cohort of a lesson is formed by
+ * {@link ScheduleState#seat} from the students that need the subject and are free, capped at the classroom capacity.
+ * Every free classroom capacity of the slot is tried for every pair, classrooms of equal capacity are
+ * interchangeable, so only one of them is. Open slots with the fewest candidates are branched on first and candidates
+ * with the largest cohorts are tried first. Pairs inside one slot are only taken in ascending order, which skips the
+ * permutations of the same set of lessons but still reaches every classroom assignment of that set.
+ * <p>
+ * After every assignment a forward check bounds the unmet lesson-units that remain in any completion: a student
+ * can only get lessons from the cohorts that are still possible, at most one per slot. Branches whose bound reaches
+ * the best schedule found are cut.
+ * <p>
+ * The greedy schedule of {@link ClassroomScheduler} is the first incumbent. When the search runs out of time or is
+ * cancelled the best schedule found so far is kept. A completed search only covers cohorts formed by the seating rule
+ * in the order the lessons are placed, schedules that group students differently are not enumerated, so the result
+ * is the best of the search tree and not proven optimal over all schedules.
+ */
+public class BranchAndBoundScheduler {
+    private final ClassroomScheduler scheduler;
+    private final ScheduleState state;
+    private final SlotGrid slotGrid;
+    private final Duration timeLimit;
+    private final SolverControl control;
+    private final int[][] pairIndex;
+    private final int[] sortedClassrooms;
+    private final boolean[] closedSlots;
+    private final int[] lastPairInSlot;
+    private final int[] reachableSlots;
+    private final int[] lastSlotSeen;
+    private final int[] reachableSubjectSlots;
+    private final int[] lastSubjectSlotSeen;
+    private List<Placement> best;
+    private int bestUnmet;
+    private long deadline;
+    private boolean stopped;
+
+    public BranchAndBoundScheduler(ClassroomScheduler scheduler, Duration timeLimit, SolverControl control) {
+        this.scheduler = scheduler;
+        this.state = scheduler.state();
+        this.slotGrid = scheduler.slotGrid();
+        this.timeLimit = timeLimit;
+        this.control = control;
+        this.pairIndex = createPairIndex(scheduler);
+        this.sortedClassrooms = createSortedClassrooms(scheduler);
+        this.closedSlots = new boolean[slotGrid.slotCount()];
+        this.lastPairInSlot = new int[slotGrid.slotCount()];
+        Arrays.fill(lastPairInSlot, -1);
+        RequirementMatrix requirements = state.requirements();
+        this.reachableSlots = new int[requirements.studentCount()];
+        this.lastSlotSeen = new int[requirements.studentCount()];
+        this.reachableSubjectSlots = new int[requirements.studentCount() * requirements.subjectCount()];
+        this.lastSubjectSlotSeen = new int[requirements.studentCount() * requirements.subjectCount()];
+    }
+
+    private static int[][] createPairIndex(ClassroomScheduler scheduler) {
+        int[][] pairIndex = new int[scheduler.teacherCount()][];
+        int next = 0;
+        for (int teacher = 0; teacher < scheduler.teacherCount(); teacher++) {
+            pairIndex[teacher] = new int[scheduler.teacherSubjects(teacher).length];
+            for (int i = 0; i < pairIndex[teacher].length; i++) {
+                pairIndex[teacher][i] = next++;
+            }
+        }
+        return pairIndex;
+    }
+
+    private static int[] createSortedClassrooms(ClassroomScheduler scheduler) {
+        return IntStream.range(0, scheduler.classroomCount())
+                .boxed()
+                .sorted(Comparator.comparingInt(scheduler.state()::capacity).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Runs the search and returns the scheduler holding the best schedule found.
+     */
+    public ClassroomScheduler solve() {
+        scheduler.placeLessons(null, control);
+        best = snapshot();
+        bestUnmet = state.unmetUnits();
+        control.publish(state.progress(SolverProgress.Phase.EXACT_SEARCH, bestUnmet));
+        for (PlacedLesson lesson : new ArrayList<>(state.lessons())) {
+            state.unplace(lesson);
+        }
+
+        deadline = System.nanoTime() + timeLimit.toNanos();
+        if (bestUnmet > 0) {
+            search();
+        }
+
+        restore(best);
+        scheduler.recordStatistics(control);
+        return scheduler;
+    }
+
+    private void search() {
+        if (System.nanoTime() > deadline || control.isCancelled()) {
+            stopped = true;
+            return;
+        }
+        control.report(() -> state.progress(SolverProgress.Phase.EXACT_SEARCH, bestUnmet));
+
+        if (state.unmetUnits() < bestUnmet) {
+            best = snapshot();
+            bestUnmet = state.unmetUnits();
+            if (bestUnmet == 0) {
+                stopped = true;
+                return;
+            }
+        }
+
+        List<List<Candidate>> candidatesBySlot = new ArrayList<>(slotGrid.slotCount());
+        for (int slot = 0; slot < slotGrid.slotCount(); slot++) {
+            candidatesBySlot.add(closedSlots[slot] ? List.of() : candidates(slot));
+        }
+        if (lowerBound(candidatesBySlot) >= bestUnmet) {
+            return;
+        }
+
+        // Branch on the open slot with the fewest candidates
+        int slot = -1;
+        for (int current = 0; current < slotGrid.slotCount(); current++) {
+            int size = candidatesBySlot.get(current).size();
+            if (size > 0 && (slot < 0 || size < candidatesBySlot.get(slot).size())) {
+                slot = current;
+            }
+        }
+        if (slot < 0) {
+            return;
+        }
+
+        List<Candidate> candidates = candidatesBySlot.get(slot);
+        candidates.sort(Comparator.comparingInt((Candidate candidate) -> candidate.students.length).reversed());
+        int previousPair = lastPairInSlot[slot];
+        for (Candidate candidate : candidates) {
+            lastPairInSlot[slot] = candidate.pair;
+            PlacedLesson lesson = state.place(slot, candidate.classroom, candidate.teacher, candidate.subject,
+                    candidate.students);
+            search();
+            state.unplace(lesson);
+            if (stopped) {
+                break;
+            }
+        }
+        lastPairInSlot[slot] = previousPair;
+        if (stopped) {
+            return;
+        }
+
+        // Leave the remaining classrooms of the slot empty
+        closedSlots[slot] = true;
+        search();
+        closedSlots[slot] = false;
+    }
+
+    private List<Candidate> candidates(int slot) {
+        int[] classrooms = freeClassrooms(slot);
+        List<Candidate> candidates = new ArrayList<>();
+        if (classrooms.length == 0) {
+            return candidates;
+        }
+        for (int teacher = 0; teacher < scheduler.teacherCount(); teacher++) {
+            if (!scheduler.isTeacherWorking(teacher, slot) || !state.occupancy().isTeacherFree(teacher, slot)) {
+                continue;
+            }
+            int[] subjects = scheduler.teacherSubjects(teacher);
+            for (int i = 0; i < subjects.length; i++) {
+                if (pairIndex[teacher][i] <= lastPairInSlot[slot]) {
+                    continue;
+                }
+                int[] available = state.availableStudents(subjects[i], slot);
+                if (available.length == 0) {
+                    continue;
+                }
+                for (int classroom : classrooms) {
+                    int[] students = state.seat(subjects[i], available, state.capacity(classroom));
+                    candidates.add(new Candidate(pairIndex[teacher][i], teacher, subjects[i], classroom, available,
+                            students));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Lower bound of the unmet lesson-units of every schedule that extends the current one.
+     * <p>
+     * Cohorts only shrink deeper in the tree, so a student can only get lessons in slots where a current candidate
+     * includes them, at most one per slot, and at most as many of a subject as slots offering it to them. No more
+     * students than the free seats of those slots can be served either.
+     */
+    private int lowerBound(List<List<Candidate>> candidatesBySlot) {
+        RequirementMatrix requirements = state.requirements();
+        int subjectCount = requirements.subjectCount();
+        Arrays.fill(reachableSlots, 0);
+        Arrays.fill(reachableSubjectSlots, 0);
+        Arrays.fill(lastSlotSeen, -1);
+        Arrays.fill(lastSubjectSlotSeen, -1);
+        for (int slot = 0; slot < candidatesBySlot.size(); slot++) {
+            for (Candidate candidate : candidatesBySlot.get(slot)) {
+                for (int student : candidate.available) {
+                    if (lastSlotSeen[student] != slot) {
+                        lastSlotSeen[student] = slot;
+                        reachableSlots[student]++;
+                    }
+                    int cell = student * subjectCount + candidate.subject;
+                    if (lastSubjectSlotSeen[cell] != slot) {
+                        lastSubjectSlotSeen[cell] = slot;
+                        reachableSubjectSlots[cell]++;
+                    }
+                }
+            }
+        }
+
+        int freeSeats = 0;
+        for (int slot = 0; slot < candidatesBySlot.size(); slot++) {
+            if (!candidatesBySlot.get(slot).isEmpty()) {
+                freeSeats += freeSeats(slot);
+            }
+        }
+
+        int gain = 0;
+        for (int student = 0; student < requirements.studentCount(); student++) {
+            if (reachableSlots[student] == 0) {
+                continue;
+            }
+            int studentGain = 0;
+            for (int subject = 0; subject < subjectCount; subject++) {
+                int remaining = requirements.remaining(student, subject);
+                if (remaining > 0) {
+                    studentGain += Math.min(remaining, reachableSubjectSlots[student * subjectCount + subject]);
+                }
+            }
+            gain += Math.min(studentGain, reachableSlots[student]);
+        }
+        return state.unmetUnits() - Math.min(gain, freeSeats);
+    }
+
+    private int freeSeats(int slot) {
+        int seats = 0;
+        for (int classroom : sortedClassrooms) {
+            if (state.occupancy().isClassroomFree(classroom, slot)) {
+                seats += state.capacity(classroom);
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * The first free classroom of every free capacity in the slot, largest first.
+     */
+    private int[] freeClassrooms(int slot) {
+        int[] classrooms = new int[sortedClassrooms.length];
+        int count = 0;
+        for (int classroom : sortedClassrooms) {
+            if (state.occupancy().isClassroomFree(classroom, slot)
+                    && (count == 0 || state.capacity(classrooms[count - 1]) != state.capacity(classroom))) {
+                classrooms[count++] = classroom;
+            }
+        }
+        return Arrays.copyOf(classrooms, count);
+    }
+
+    private List<Placement> snapshot() {
+        return state.lessons().stream()
+                .map(lesson -> new Placement(lesson.slot(), lesson.classroom(), lesson.teacher(), lesson.subject(),
+                        lesson.students()))
+                .toList();
+    }
+
+    private void restore(List<Placement> placements) {
+        for (PlacedLesson lesson : new ArrayList<>(state.lessons())) {
+            state.unplace(lesson);
+        }
+        for (Placement placement : placements) {
+            state.place(placement.slot, placement.classroom, placement.teacher, placement.subject,
+                    placement.students);
+        }
+    }
+
+    private record Candidate(int pair, int teacher, int subject, int classroom, int[] available, int[] students) {
+    }
+
+    private record Placement(int slot, int classroom, int teacher, int subject, int[] students) {
+    }
+}
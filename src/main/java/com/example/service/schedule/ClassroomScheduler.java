@@ -1,13 +1,17 @@
 package com.example.service.schedule;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import com.example.db.Classroom;
@@ -15,7 +19,6 @@ import com.example.db.Student;
 import com.example.db.Subject;
 import com.example.db.Teacher;
 import com.example.dto.ScheduledLesson;
-import com.example.dto.TimeSlot;
 import lombok.Getter;
 
 public class ClassroomScheduler {
@@ -25,257 +28,328 @@ public class ClassroomScheduler {
     public static final int LESSONS_PER_DAY = 11;
     public static final LocalTime SCHOOL_START_TIME = LocalTime.of(9, 0);
     public static final LocalTime SCHOOL_END_TIME = LocalTime.of(17, 30);
+    public static final int DEFAULT_MAX_CONSECUTIVE_LESSONS = 4;
+    public static final int DEFAULT_SUBJECT_LOOKAHEAD = 8;
 
-    private final List<Student> students;
-    private final List<Teacher> teachers;
-    private final Map<Long, Subject> subjectById;
-    private final List<Classroom> classrooms;
-    private final Map<Long, Set<Long>> teacherSubjectMap;
+    private final SchedulingProblem problem;
+    private final int[][] teacherSubjects;
+    private final int[][] subjectTeachers;
     @Getter
-    private final Map<Long, Map<Long, Integer>> studentSubjectRequirements;
-    private final List<ScheduledLesson> schedule;
+    private final RequirementMatrix requirements;
+    private final SlotGrid slotGrid;
+    private final BitSet[] teacherWorkingSlots;
+    private final ScheduleState state;
+    private final int subjectLookahead;
+    private final Map<PlacedLesson, Long> restoredLessonIds = new HashMap<>();
 
     public ClassroomScheduler(List<Student> students, List<Teacher> teachers, List<Subject> subjects,
             List<Classroom> classrooms) {
-        this.students = students;
-        this.teachers = teachers;
-        this.subjectById = subjects.stream().collect(Collectors.toMap(Subject::getId, it -> it));
-        this.classrooms = classrooms;
-        this.teacherSubjectMap = createTeacherSubjectMap(teachers);
-        this.studentSubjectRequirements = createStudentSubjectRequirements(students);
-        this.schedule = new ArrayList<>();
+        this(students, teachers, subjects, classrooms, DEFAULT_MAX_CONSECUTIVE_LESSONS);
     }
 
-    private static Map<Long, Set<Long>> createTeacherSubjectMap(List<Teacher> teachers) {
-        Map<Long, Set<Long>> map = new HashMap<>();
-        for (Teacher teacher : teachers) {
-            Set<Long> subjectIds = teacher.getSubjects().stream()
-                    .map(Subject::getId)
-                    .collect(Collectors.toSet());
-            map.put(teacher.getId(), subjectIds);
-        }
-        return map;
+    public ClassroomScheduler(List<Student> students, List<Teacher> teachers, List<Subject> subjects,
+            List<Classroom> classrooms, int maxConsecutiveLessons) {
+        this(SchedulingProblem.of(students, teachers, subjects, classrooms), maxConsecutiveLessons);
     }
 
-    private static Map<Long, Map<Long, Integer>> createStudentSubjectRequirements(List<Student> students) {
-        Map<Long, Map<Long, Integer>> requirements = new HashMap<>();
+    public ClassroomScheduler(SchedulingProblem problem, int maxConsecutiveLessons) {
+        this(problem, maxConsecutiveLessons, DEFAULT_SUBJECT_LOOKAHEAD);
+    }
 
-        for (Student student : students) {
-            Map<Long, Integer> studentRequirements = new HashMap<>();
-            for (Subject subject : student.getSubjects()) {
-                studentRequirements.put(subject.getId(), subject.getTotalCountPerWeek());
-            }
-            requirements.put(student.getId(), studentRequirements);
-        }
+    /**
+     * Scheduler over a compiled problem. The problem is only read, so any number of schedulers can share it.
+     * {@code subjectLookahead} is the number of subjects the greedy pass compares for a classroom-slot, see
+     * {@link #placeLessons(Random)}.
+     */
+    public ClassroomScheduler(SchedulingProblem problem, int maxConsecutiveLessons, int subjectLookahead) {
+        this.problem = problem;
+        this.subjectLookahead = Math.max(subjectLookahead, 1);
+        this.teacherSubjects = problem.teacherSubjects();
+        this.subjectTeachers = problem.subjectTeachers();
+        this.requirements = new RequirementMatrix(problem);
+        this.slotGrid = problem.slotGrid();
+        this.teacherWorkingSlots = problem.teacherWorkingSlots();
+        this.state = new ScheduleState(slotGrid, requirements, new SubjectDemandIndex(problem),
+                new SubjectPriorityQueue(problem), problem.teacherCount(), problem.classroomCapacities(),
+                maxConsecutiveLessons);
+    }
 
-        return requirements;
+    /**
+     * Number of lessons that are still missing over all students and subjects.
+     */
+    public int getUnmetUnits() {
+        return state.unmetUnits();
     }
 
     public List<ScheduledLesson> buildSchedule(LocalDateTime weekStart) {
-        // Create a map of available time slots for each classroom
-        Map<Long, List<TimeSlot>> classroomTimeSlots = createClassroomTimeSlots(weekStart);
+        placeLessons(null);
+        return toScheduledLessons(weekStart);
+    }
 
-        // Sort classrooms by number of available slots (ascending) to prioritize filling classrooms with fewer slots
-        List<Classroom> sortedClassrooms = new ArrayList<>(classrooms);
-        sortedClassrooms.sort(Comparator.comparingInt(Classroom::getCapacity).reversed());
+    /**
+     * Runs the greedy construction. Subjects are tried in {@link SubjectPriorityQueue} order, most unmet demand per
+     * qualified teacher first, each with a free teacher that works in the slot. Every free classroom-slot gets the
+     * subject that seats the most students among the first {@code subjectLookahead} subjects with any student, capped
+     * at the classroom capacity; a subject that fills the classroom is taken right away. Without a random source
+     * classrooms are filled from the largest one, slots in their natural order and the first free teacher of a subject
+     * is taken. With a random source all three orders are shuffled, which gives a different but reproducible schedule
+     * for every seed.
+     */
+    public void placeLessons(Random random) {
+        placeLessons(random, SolverControl.none());
+    }
+
+    /**
+     * Runs the greedy construction like {@link #placeLessons(Random)} and stops at the next classroom-slot once the
+     * run is cancelled, keeping the lessons placed so far.
+     */
+    public void placeLessons(Random random, SolverControl control) {
+        // Sort classrooms by capacity (descending) to fill the largest classrooms first
+        List<Integer> sortedClassrooms = new ArrayList<>();
+        for (int i = 0; i < problem.classroomCount(); i++) {
+            sortedClassrooms.add(i);
+        }
+        sortedClassrooms.sort(Comparator.comparingInt((Integer i) -> problem.classroomCapacity(i)).reversed());
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < slotGrid.slotCount(); slot++) {
+            slots.add(slot);
+        }
+        if (random != null) {
+            Collections.shuffle(sortedClassrooms, random);
+        }
+        int[] polledSubjects = new int[problem.subjectCount()];
 
         // Try to fill each classroom
-        for (Classroom classroom : sortedClassrooms) {
-            List<TimeSlot> availableSlots = classroomTimeSlots.get(classroom.getId());
-
-            for (TimeSlot timeSlot : availableSlots) {
-                // Find all possible subject-teacher combinations for this time slot
-                List<SubjectTeacherPair> possiblePairs = findPossibleSubjectTeacherPairs(timeSlot);
-
-                // For each possible pair, try to find students
-                for (SubjectTeacherPair pair : possiblePairs) {
-                    List<Student> availableStudents = findAvailableStudents(pair.subject, timeSlot);
-                    if (!availableStudents.isEmpty()) {
-                        // Create and add the lesson
-                        ScheduledLesson lesson = buildScheduledLesson(timeSlot, classroom, pair.teacher, pair.subject,
-                                availableStudents);
-                        schedule.add(lesson);
-                        updateStudentSubjectRequirements(availableStudents.stream()
-                                .map(Student::getId)
-                                .collect(Collectors.toList()), pair.subject.getId());
-                        break;
+        for (int classroom : sortedClassrooms) {
+            if (random != null) {
+                Collections.shuffle(slots, random);
+            }
+            for (int slot : slots) {
+                if (control.isCancelled()) {
+                    return;
+                }
+                if (!state.occupancy().isClassroomFree(classroom, slot)) {
+                    continue;
+                }
+
+                // Compare the most urgent subjects, a full classroom cannot do better
+                int capacity = state.capacity(classroom);
+                SubjectPriorityQueue urgency = state.urgency();
+                int polled = 0;
+                int compared = 0;
+                SubjectTeacherPair bestPair = null;
+                int[] bestStudents = new int[0];
+                while (!urgency.isEmpty() && compared < subjectLookahead) {
+                    int subject = urgency.poll();
+                    polledSubjects[polled++] = subject;
+                    int teacher = findAvailableTeacher(subject, slot, random);
+                    if (teacher < 0) {
+                        continue;
+                    }
+                    int[] seatedStudents = state.seat(subject, state.availableStudents(subject, slot), capacity);
+                    if (seatedStudents.length == 0) {
+                        continue;
                     }
+                    compared++;
+                    if (seatedStudents.length > bestStudents.length) {
+                        bestPair = new SubjectTeacherPair(subject, teacher);
+                        bestStudents = seatedStudents;
+                        if (bestStudents.length == capacity) {
+                            break;
+                        }
+                    }
+                }
+                for (int i = 0; i < polled; i++) {
+                    urgency.offer(polledSubjects[i]);
+                }
+                if (bestPair != null) {
+                    // Create and add the lesson
+                    state.place(slot, classroom, bestPair.teacher, bestPair.subject, bestStudents);
                 }
             }
         }
-
-        return schedule;
     }
 
-    private Map<Long, List<TimeSlot>> createClassroomTimeSlots(LocalDateTime weekStart) {
-        Map<Long, List<TimeSlot>> classroomTimeSlots = new HashMap<>();
-
-        for (Classroom classroom : classrooms) {
-            List<TimeSlot> slots = new ArrayList<>();
-            for (int day = 0; day < 5; day++) {
-                LocalDateTime currentDay = weekStart.plusDays(day);
-                for (int slot = 0; slot < LESSONS_PER_DAY; slot++) {
-                    TimeSlot timeSlot = createTimeSlot(currentDay, slot);
-                    if (timeSlot != null) {
-                        slots.add(timeSlot);
-                    }
-                }
+    /**
+     * Puts persisted lessons of the week back onto the grid before the schedule is repaired.
+     * <p>
+     * A lesson is dropped when its time is not a slot of the week, its classroom, teacher or subject no longer
+     * exists, the teacher no longer teaches the subject or works at that time, or its classroom or teacher is
+     * already taken by a lesson restored before. Students that no longer exist, no longer need the subject or are
+     * busy are taken out of the lesson, students beyond the classroom capacity as well. A lesson left without
+     * students is dropped. Kept lessons remember their id, see {@link ScheduledLesson#getId()}.
+     */
+    public void restoreLessons(List<ScheduledLesson> lessons, LocalDateTime weekStart) {
+        for (ScheduledLesson lesson : lessons) {
+            int slot = slotGrid.slotOf(weekStart, lesson.getDateStart());
+            int classroom = problem.classroomIndex(lesson.getClassroomId());
+            int teacher = problem.teacherIndex(lesson.getTeacherId());
+            int subject = problem.subjectIndex(lesson.getSubjectId());
+            if (slot < 0 || classroom < 0 || teacher < 0 || subject < 0
+                    || Arrays.binarySearch(teacherSubjects[teacher], subject) < 0
+                    || !teacherWorkingSlots[teacher].get(slot)
+                    || !state.occupancy().isClassroomFree(classroom, slot)
+                    || !state.occupancy().isTeacherFree(teacher, slot)) {
+                continue;
             }
-            classroomTimeSlots.put(classroom.getId(), slots);
-        }
 
-        return classroomTimeSlots;
+            int[] lessonStudents = lesson.getStudentIds().stream()
+                    .mapToInt(problem::studentIndex)
+                    .filter(student -> student >= 0 && state.canAttend(student, subject, slot))
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            lessonStudents = state.seat(subject, lessonStudents, state.capacity(classroom));
+            if (lessonStudents.length > 0) {
+                restoredLessonIds.put(state.place(slot, classroom, teacher, subject, lessonStudents), lesson.getId());
+            }
+        }
     }
 
-    private TimeSlot createTimeSlot(LocalDateTime currentDay, int slot) {
-        LocalDateTime lessonStart = currentDay
-                .with(SCHOOL_START_TIME)
-                .plusMinutes((long) slot * TOTAL_SLOT_DURATION);
-        LocalDateTime lessonEnd = lessonStart.plusMinutes(LESSON_DURATION_MINUTES);
-
-        if (lessonEnd.toLocalTime().isAfter(SCHOOL_END_TIME)) {
-            return null;
+    /**
+     * Places the demand restored lessons do not cover without moving them: students first join lessons of their
+     * subject that still have free seats, then the greedy pass fills the free classroom-slots until the run is
+     * cancelled.
+     */
+    public void placeFreedDemand(SolverControl control) {
+        for (PlacedLesson lesson : new ArrayList<>(state.lessons())) {
+            for (int student : state.availableStudents(lesson.subject(), lesson.slot())) {
+                if (!state.hasFreeSeat(lesson)) {
+                    break;
+                }
+                if (state.canAttend(student, lesson.subject(), lesson.slot())) {
+                    state.addStudent(lesson, student);
+                }
+            }
         }
+        placeLessons(null, control);
+    }
 
-        return new TimeSlot(lessonStart, lessonEnd);
+    ScheduleState state() {
+        return state;
     }
 
-    private List<SubjectTeacherPair> findPossibleSubjectTeacherPairs(TimeSlot timeSlot) {
-        List<SubjectTeacherPair> pairs = new ArrayList<>();
+    SlotGrid slotGrid() {
+        return slotGrid;
+    }
 
-        // Get all available teachers for this time slot
-        List<Teacher> availableTeachers = findAvailableTeachers(timeSlot);
+    boolean isTeacherWorking(int teacher, int slot) {
+        return teacherWorkingSlots[teacher].get(slot);
+    }
 
-        for (Teacher teacher : availableTeachers) {
-            Set<Long> teacherSubjects = teacherSubjectMap.get(teacher.getId());
-            if (teacherSubjects != null) {
-                for (Long subjectId : teacherSubjects) {
-                    Subject subject = subjectById.get(subjectId);
-                    if (subject != null) {
-                        pairs.add(new SubjectTeacherPair(subject, teacher));
-                    }
-                }
-            }
-        }
+    int teacherCount() {
+        return problem.teacherCount();
+    }
 
-        return pairs;
+    int[] teacherSubjects(int teacher) {
+        return teacherSubjects[teacher];
     }
 
-    private List<Student> findAvailableStudents(Subject subject, TimeSlot timeSlot) {
-        return students.stream()
-                .filter(student -> {
-                    // Check if student needs this subject
-                    Map<Long, Integer> requirements = studentSubjectRequirements.get(student.getId());
-                    if (requirements == null || requirements.get(subject.getId()) == null
-                            || requirements.get(subject.getId()) <= 0) {
-                        return false;
-                    }
+    int[] subjectTeachers(int subject) {
+        return subjectTeachers[subject];
+    }
 
-                    // Check if student's level matches subject level
-                    if (!student.getLevel().equals(subject.getLevel())) {
-                        return false;
-                    }
+    int classroomCount() {
+        return problem.classroomCount();
+    }
 
-                    // Check if student is available at this time
-                    List<TimeSlot> studentTimeSlots = schedule.stream()
-                            .filter(lesson -> lesson.getStudentIds().contains(student.getId()))
-                            .map(lesson -> new TimeSlot(lesson.getDateStart(), lesson.getDateEnd()))
-                            .toList();
+    /**
+     * Improves the constructed schedule with {@link LocalSearchImprover} until no lesson-unit is missing, no better
+     * move is found, {@code maxIterations} or the optional wall-clock budget run out or the run is cancelled.
+     */
+    public void improve(int maxIterations, Duration timeBudget, Random random, SolverControl control) {
+        new LocalSearchImprover(state, slotGrid, teacherWorkingSlots, subjectTeachers, problem.classroomCount(),
+                random, control)
+                .improve(maxIterations, timeBudget);
+        recordStatistics(control);
+    }
 
-                    if (studentTimeSlots.stream().anyMatch(timeSlot::overlaps)) {
-                        return false;
-                    }
+    /**
+     * Adds the work this scheduler did since the last call to the statistics of the run.
+     */
+    public void recordStatistics(SolverControl control) {
+        state.recordStatistics(control.statistics());
+    }
 
-                    // Check if student has too many consecutive lessons
-                    return !hasTooManyConsecutiveLessons(student, subject.getId());
-                })
-                .collect(Collectors.toList());
+    /**
+     * Share of the teacher working slots that have a lesson.
+     */
+    public double getTeacherUtilization() {
+        long workingSlots = 0;
+        for (BitSet slots : teacherWorkingSlots) {
+            workingSlots += slots.cardinality();
+        }
+        return workingSlots == 0 ? 0 : (double) state.lessons().size() / workingSlots;
     }
 
-    private List<Teacher> findAvailableTeachers(TimeSlot timeSlot) {
-        return teachers.stream()
-                .filter(teacher -> {
-                    // Check if teacher is available at this time
-                    List<TimeSlot> teacherTimeSlots = schedule.stream()
-                            .filter(lesson -> lesson.getTeacherId().equals(teacher.getId()))
-                            .map(lesson -> new TimeSlot(lesson.getDateStart(), lesson.getDateEnd()))
-                            .toList();
-
-                    if (teacherTimeSlots.stream().anyMatch(timeSlot::overlaps)) {
-                        return false;
-                    }
+    /**
+     * Share of the classroom-slots that have a lesson.
+     */
+    public double getClassroomUtilization() {
+        long classroomSlots = (long) problem.classroomCount() * slotGrid.slotCount();
+        return classroomSlots == 0 ? 0 : (double) state.lessons().size() / classroomSlots;
+    }
 
-                    // Check if the time is within teacher's working hours
-                    LocalTime teacherStart = teacher.getTimeStart();
-                    LocalTime teacherEnd = teacher.getTimeEnd();
-                    LocalTime lessonStart = timeSlot.getDateStart().toLocalTime();
-                    LocalTime lessonEnd = timeSlot.getDateEnd().toLocalTime();
+    /**
+     * Progress snapshot of the schedule this scheduler holds.
+     */
+    public SolverProgress progress(SolverProgress.Phase phase, int bestUnmetUnits) {
+        return state.progress(phase, bestUnmetUnits);
+    }
 
-                    return !lessonStart.isBefore(teacherStart) && !lessonEnd.isAfter(teacherEnd);
-                })
+    /**
+     * Materializes the placed lessons as dated lessons of the week starting at {@code weekStart}.
+     */
+    public List<ScheduledLesson> toScheduledLessons(LocalDateTime weekStart) {
+        return state.lessons().stream()
+                .map(lesson -> buildScheduledLesson(weekStart, lesson))
                 .collect(Collectors.toList());
     }
 
-    private void updateStudentSubjectRequirements(List<Long> studentIds, Long subjectId) {
-        for (Long studentId : studentIds) {
-            Map<Long, Integer> studentRequirements = studentSubjectRequirements.get(studentId);
-            if (studentRequirements != null) {
-                Integer currentRequired = studentRequirements.get(subjectId);
-                if (currentRequired != null && currentRequired > 0) {
-                    studentRequirements.put(subjectId, currentRequired - 1);
-                }
+    /**
+     * A teacher of the subject that works in the slot and is not busy, or {@code -1}. With a random source the search
+     * starts at a random teacher.
+     */
+    private int findAvailableTeacher(int subject, int slot, Random random) {
+        int[] teachers = subjectTeachers[subject];
+        int offset = random != null && teachers.length > 0 ? random.nextInt(teachers.length) : 0;
+        for (int i = 0; i < teachers.length; i++) {
+            int teacher = teachers[(offset + i) % teachers.length];
+            // Check if the slot is within teacher's working hours and teacher is not busy
+            if (teacherWorkingSlots[teacher].get(slot) && state.occupancy().isTeacherFree(teacher, slot)) {
+                return teacher;
             }
         }
+        return -1;
     }
 
-    private ScheduledLesson buildScheduledLesson(TimeSlot timeSlot, Classroom classroom, Teacher teacher,
-            Subject subject, List<Student> students) {
+    private ScheduledLesson buildScheduledLesson(LocalDateTime weekStart, PlacedLesson placedLesson) {
+        int classroom = placedLesson.classroom();
+        int teacher = placedLesson.teacher();
+        int subject = placedLesson.subject();
+        int[] lessonStudents = placedLesson.students();
+
         ScheduledLesson lesson = new ScheduledLesson();
-        lesson.setDateStart(timeSlot.getDateStart());
-        lesson.setDateEnd(timeSlot.getDateEnd());
-        lesson.setClassroomId(classroom.getId());
-        lesson.setClassroomName(classroom.getName());
-        lesson.setTeacherId(teacher.getId());
-        lesson.setTeacherName(teacher.getName());
-        lesson.setTeacherSurname(teacher.getSurname());
-        lesson.setSubjectId(subject.getId());
-        lesson.setSubjectName(subject.getName());
-        lesson.setSubjectLevel(subject.getLevel());
-        lesson.setStudentIds(students.stream().map(Student::getId).collect(Collectors.toList()));
-        lesson.setStudentNames(students.stream()
-                .map(s -> s.getName() + " " + s.getSurname())
+        lesson.setId(restoredLessonIds.get(placedLesson));
+        lesson.setDateStart(slotGrid.lessonStart(weekStart, placedLesson.slot()));
+        lesson.setDateEnd(slotGrid.lessonEnd(weekStart, placedLesson.slot()));
+        lesson.setClassroomId(problem.classroomId(classroom));
+        lesson.setClassroomName(problem.classroomName(classroom));
+        lesson.setTeacherId(problem.teacherId(teacher));
+        lesson.setTeacherName(problem.teacherName(teacher));
+        lesson.setTeacherSurname(problem.teacherSurname(teacher));
+        lesson.setSubjectId(problem.subjectId(subject));
+        lesson.setSubjectName(problem.subjectName(subject));
+        lesson.setSubjectLevel(problem.subjectLevel(subject));
+        lesson.setStudentIds(Arrays.stream(lessonStudents)
+                .mapToObj(problem::studentId)
+                .collect(Collectors.toList()));
+        lesson.setStudentNames(Arrays.stream(lessonStudents)
+                .mapToObj(student -> problem.studentName(student) + " " + problem.studentSurname(student))
                 .collect(Collectors.toList()));
         return lesson;
     }
 
-    private boolean hasTooManyConsecutiveLessons(Student student, Long subjectId) {
-        List<ScheduledLesson> studentLessons = schedule.stream()
-                .filter(lesson -> lesson.getStudentIds().contains(student.getId()) &&
-                        lesson.getSubjectId().equals(subjectId))
-                .sorted((l1, l2) -> l2.getDateStart().compareTo(l1.getDateStart()))
-                .toList();
-
-        if (!studentLessons.isEmpty()) {
-            int consecutiveLessons = 1;
-            LocalDateTime currentTime = studentLessons.get(0).getDateStart();
-
-            for (int i = 1; i < studentLessons.size(); i++) {
-                LocalDateTime previousTime = studentLessons.get(i).getDateStart();
-                if (currentTime.minusMinutes(TOTAL_SLOT_DURATION).equals(previousTime)) {
-                    consecutiveLessons++;
-                    if (consecutiveLessons >= 4) { // Maximum 4 consecutive lessons
-                        return true;
-                    }
-                } else {
-                    consecutiveLessons = 1;
-                }
-                currentTime = previousTime;
-            }
-        }
-
-        return false;
-    }
-
-    private record SubjectTeacherPair(Subject subject, Teacher teacher) {
+    private record SubjectTeacherPair(int subject, int teacher) {
     }
 } 
\ No newline at end of file
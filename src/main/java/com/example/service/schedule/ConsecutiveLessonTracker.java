@@ -0,0 +1,98 @@
+package com.example.service.schedule;
+
+/**
+ * Keeps run lengths of back-to-back lessons of the same subject for every student.
+ * <p>
+ * For every student and slot the tracker stores the subject taught there and the length of the same-subject run
+ * ending and starting at that slot. Only the values at the ends of a run have to be exact, because a new lesson can
+ * only extend a run at one of its ends, so both the check and the update take constant time. Taking a lesson away
+ * walks the run it splits, which is bounded by the limit.
+ */
+class ConsecutiveLessonTracker {
+    private final SlotGrid slotGrid;
+    private final int maxConsecutiveLessons;
+    private final int slotCount;
+    private final int[] subjectAt;
+    private final int[] runEndingAt;
+    private final int[] runStartingAt;
+
+    ConsecutiveLessonTracker(SlotGrid slotGrid, int studentCount, int maxConsecutiveLessons) {
+        this.slotGrid = slotGrid;
+        this.maxConsecutiveLessons = maxConsecutiveLessons;
+        this.slotCount = slotGrid.slotCount();
+        this.subjectAt = new int[studentCount * slotCount];
+        this.runEndingAt = new int[studentCount * slotCount];
+        this.runStartingAt = new int[studentCount * slotCount];
+    }
+
+    /**
+     * Whether a lesson of the subject in this slot keeps the student within the consecutive lessons limit.
+     */
+    boolean canPlace(int student, int subject, int slot) {
+        return runBefore(student, subject, slot) + 1 + runAfter(student, subject, slot) <= maxConsecutiveLessons;
+    }
+
+    void place(int student, int subject, int slot) {
+        int before = runBefore(student, subject, slot);
+        int after = runAfter(student, subject, slot);
+        int length = before + 1 + after;
+        int cell = cell(student, slot);
+
+        // subjects are stored shifted by one so that zero means no lesson
+        subjectAt[cell] = subject + 1;
+        runEndingAt[cell] = before + 1;
+        runStartingAt[cell] = after + 1;
+        runStartingAt[cell - before] = length;
+        runEndingAt[cell + after] = length;
+    }
+
+    void remove(int student, int slot) {
+        int cell = cell(student, slot);
+        int subject = subjectAt[cell];
+        if (subject == 0) {
+            return;
+        }
+        subjectAt[cell] = 0;
+        runEndingAt[cell] = 0;
+        runStartingAt[cell] = 0;
+
+        // Interior run lengths are not maintained, so both halves of the split run are measured again
+        int slotOfDay = slotGrid.slotOfDay(slot);
+        int before = 0;
+        while (slotOfDay - before > 0 && subjectAt[cell - before - 1] == subject) {
+            before++;
+        }
+        int after = 0;
+        while (slotOfDay + after < slotGrid.slotsPerDay() - 1 && subjectAt[cell + after + 1] == subject) {
+            after++;
+        }
+        if (before > 0) {
+            runStartingAt[cell - before] = before;
+            runEndingAt[cell - 1] = before;
+        }
+        if (after > 0) {
+            runStartingAt[cell + 1] = after;
+            runEndingAt[cell + after] = after;
+        }
+    }
+
+    private int runBefore(int student, int subject, int slot) {
+        if (slotGrid.slotOfDay(slot) == 0) {
+            return 0;
+        }
+        int previous = cell(student, slot - 1);
+        return subjectAt[previous] == subject + 1 ? runEndingAt[previous] : 0;
+    }
+
+    private int runAfter(int student, int subject, int slot) {
+        if (slotGrid.slotOfDay(slot) == slotGrid.slotsPerDay() - 1) {
+            return 0;
+        }
+        int next = cell(student, slot + 1);
+        return subjectAt[next] == subject + 1 ? runStartingAt[next] : 0;
+    }
+
+    private int cell(int student, int slot) {
+        return student * slotCount + slot;
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.service.schedule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Improvement phase that starts from a constructed schedule and reduces the number of unmet lesson-units.
+ * <p>
+ * Every iteration picks a random student that still misses lessons of a subject and tries, in this order:
+ * <ul>
+ *     <li>joining an existing lesson of the subject the student is free for and that has a free seat;</li>
+ *     <li>opening a new lesson with a free qualified teacher and classroom, seating as many students as fit;</li>
+ *     <li>moving the student from a parallel lesson of another subject to a lesson of that subject in another slot,
+ *     which frees the slot of a lesson the student needs;</li>
+ *     <li>shifting a lesson of the subject that clashes with the student to a slot the student is free in, by
+ *     exchanging it with the lesson that holds its teacher or a classroom there.</li>
+ * </ul>
+ * A move is kept only when it lowers the unmet lesson-units, which {@link ScheduleState} keeps up to date on every
+ * change, so a move is evaluated from the units it touches. When no improving move exists a neutral lesson shift or
+ * lesson exchange is applied to reach other parts of the search space. Moves keep the {@link PlacedLesson} objects, a
+ * move that does not fit leaves the lesson where it was. The phase ends when nothing is missing, the iteration or time
+ * budget is spent, the run is cancelled or no improvement was found for {@value #STALL_LIMIT} iterations. Without a
+ * time budget the result only depends on the random source.
+ */
+class LocalSearchImprover {
+    private static final int STALL_LIMIT = 20_000;
+
+    private final ScheduleState state;
+    private final SlotGrid slotGrid;
+    private final BitSet[] teacherWorkingSlots;
+    private final int[][] subjectTeachers;
+    private final int classroomCount;
+    private final Random random;
+    private final SolverControl control;
+
+    LocalSearchImprover(ScheduleState state, SlotGrid slotGrid, BitSet[] teacherWorkingSlots,
+            int[][] subjectTeachers, int classroomCount, Random random, SolverControl control) {
+        this.state = state;
+        this.slotGrid = slotGrid;
+        this.teacherWorkingSlots = teacherWorkingSlots;
+        this.subjectTeachers = subjectTeachers;
+        this.classroomCount = classroomCount;
+        this.random = random;
+        this.control = control;
+    }
+
+    void improve(int maxIterations, Duration timeBudget) {
+        long start = System.nanoTime();
+        RequirementMatrix requirements = state.requirements();
+        int subjectCount = requirements.subjectCount();
+        int[] unmetCells = findUnmetCells();
+        int unmetCellCount = unmetCells.length;
+        int stalled = 0;
+        int iterations = 0;
+
+        while (unmetCellCount > 0 && stalled < STALL_LIMIT && iterations++ < maxIterations
+                && (timeBudget == null || System.nanoTime() - start < timeBudget.toNanos())
+                && !control.isCancelled()) {
+            // Only improving moves change the unmet units, so the current schedule is the best one
+            control.report(() -> state.progress(SolverProgress.Phase.LOCAL_SEARCH, state.unmetUnits()));
+
+            int position = random.nextInt(unmetCellCount);
+            int student = unmetCells[position] / subjectCount;
+            int subject = unmetCells[position] % subjectCount;
+            if (!state.demand().contains(student, subject)) {
+                // Requirement was covered meanwhile, improving moves never open new gaps
+                unmetCells[position] = unmetCells[--unmetCellCount];
+                continue;
+            }
+
+            if (tryJoin(student, subject) || tryOpenLesson(student, subject) || tryReassign(student, subject)
+                    || tryShift(student, subject)) {
+                stalled = 0;
+            } else {
+                stalled++;
+                perturb();
+            }
+        }
+    }
+
+    private int[] findUnmetCells() {
+        RequirementMatrix requirements = state.requirements();
+        int subjectCount = requirements.subjectCount();
+        int[] cells = new int[requirements.studentCount() * subjectCount];
+        int count = 0;
+        for (int student = 0; student < requirements.studentCount(); student++) {
+            for (int subject = 0; subject < subjectCount; subject++) {
+                if (state.demand().contains(student, subject)) {
+                    cells[count++] = student * subjectCount + subject;
+                }
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    private boolean tryJoin(int student, int subject) {
+        for (PlacedLesson lesson : lessonsOf(subject)) {
+            if (state.hasFreeSeat(lesson) && state.canAttend(student, subject, lesson.slot())) {
+                state.addStudent(lesson, student);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryOpenLesson(int student, int subject) {
+        int slotCount = slotGrid.slotCount();
+        int offset = random.nextInt(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            int slot = (offset + i) % slotCount;
+            if (!state.canAttend(student, subject, slot)) {
+                continue;
+            }
+            int teacher = findFreeTeacher(subject, slot);
+            int classroom = findFreeClassroom(slot);
+            if (teacher >= 0 && classroom >= 0) {
+                state.place(slot, classroom, teacher, subject,
+                        state.seat(subject, state.availableStudents(subject, slot), state.capacity(classroom)));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryReassign(int student, int subject) {
+        for (PlacedLesson target : lessonsOf(subject)) {
+            if (!state.hasFreeSeat(target)) {
+                continue;
+            }
+            PlacedLesson blocking = state.lessonOf(student, target.slot());
+            if (blocking == null || blocking.subject() == subject) {
+                continue;
+            }
+            for (PlacedLesson parallel : lessonsOf(blocking.subject())) {
+                if (parallel == blocking || !state.hasFreeSeat(parallel)
+                        || !state.occupancy().isStudentFree(student, parallel.slot())) {
+                    continue;
+                }
+                if (reassign(student, subject, blocking, parallel, target)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves the student from {@code blocking} to {@code parallel}, which teaches the same subject in another slot, and
+     * then into {@code target}. Every step is undone when one of them is not possible.
+     */
+    private boolean reassign(int student, int subject, PlacedLesson blocking, PlacedLesson parallel,
+            PlacedLesson target) {
+        int blockingSubject = blocking.subject();
+        boolean blockingRemoved = blocking.students().length == 1;
+        state.removeStudent(blocking, student);
+
+        if (state.canAttend(student, blockingSubject, parallel.slot())) {
+            state.addStudent(parallel, student);
+            if (state.canAttend(student, subject, target.slot())) {
+                state.addStudent(target, student);
+                return true;
+            }
+            state.removeStudent(parallel, student);
+        }
+
+        if (blockingRemoved) {
+            state.place(blocking, blocking.slot(), blocking.classroom());
+        } else {
+            state.addStudent(blocking, student);
+        }
+        return false;
+    }
+
+    /**
+     * A lesson of the subject with a free seat that clashes with the student can only be opened elsewhere when its
+     * teacher and a classroom are free there, which {@link #tryOpenLesson} already covers. So the lesson is exchanged
+     * with the lesson that blocks it in a slot the student is free in: the lesson of its teacher there, or one in a
+     * classroom large enough for one more student.
+     */
+    private boolean tryShift(int student, int subject) {
+        List<List<PlacedLesson>> lessonsBySlot = null;
+        for (PlacedLesson lesson : lessonsOf(subject)) {
+            if (!state.hasFreeSeat(lesson) || state.occupancy().isStudentFree(student, lesson.slot())
+                    || state.lessonOf(student, lesson.slot()) == lesson) {
+                continue;
+            }
+            if (lessonsBySlot == null) {
+                lessonsBySlot = lessonsBySlot();
+            }
+            int slotCount = slotGrid.slotCount();
+            int offset = random.nextInt(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                int slot = (offset + i) % slotCount;
+                if (slot == lesson.slot() || !state.canAttend(student, subject, slot)
+                        || !teacherWorkingSlots[lesson.teacher()].get(slot)) {
+                    continue;
+                }
+                PlacedLesson blocking = findBlockingLesson(lesson, lessonsBySlot.get(slot));
+                if (blocking == null || !exchange(lesson, blocking)) {
+                    continue;
+                }
+                if (state.canAttend(student, subject, lesson.slot())) {
+                    state.addStudent(lesson, student);
+                    return true;
+                }
+                // Exchanging back always fits, both lessons held these places before
+                exchange(lesson, blocking);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The lesson that keeps {@code lesson} out of the slot of {@code slotLessons}: the lesson its teacher gives there,
+     * otherwise a lesson whose classroom seats one more student than {@code lesson} has.
+     */
+    private PlacedLesson findBlockingLesson(PlacedLesson lesson, List<PlacedLesson> slotLessons) {
+        int seats = lesson.students().length + 1;
+        for (PlacedLesson other : slotLessons) {
+            if (other.teacher() == lesson.teacher()) {
+                return state.capacity(other.classroom()) >= seats ? other : null;
+            }
+        }
+        for (PlacedLesson other : slotLessons) {
+            if (state.capacity(other.classroom()) >= seats) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    private List<List<PlacedLesson>> lessonsBySlot() {
+        List<List<PlacedLesson>> lessonsBySlot = new ArrayList<>(slotGrid.slotCount());
+        for (int slot = 0; slot < slotGrid.slotCount(); slot++) {
+            lessonsBySlot.add(new ArrayList<>());
+        }
+        for (PlacedLesson lesson : state.lessons()) {
+            lessonsBySlot.get(lesson.slot()).add(lesson);
+        }
+        return lessonsBySlot;
+    }
+
+    /**
+     * Applies a random move that keeps the number of unmet lesson-units: a lesson shift or an exchange of two lessons.
+     */
+    private void perturb() {
+        List<PlacedLesson> lessons = state.lessons();
+        if (lessons.isEmpty()) {
+            return;
+        }
+        PlacedLesson lesson = lessons.get(random.nextInt(lessons.size()));
+        if (random.nextBoolean()) {
+            int slot = random.nextInt(slotGrid.slotCount());
+            if (slot != lesson.slot() && teacherWorkingSlots[lesson.teacher()].get(slot)) {
+                move(lesson, slot);
+            }
+        } else {
+            exchange(lesson, lessons.get(random.nextInt(lessons.size())));
+        }
+    }
+
+    /**
+     * Moves the lesson to the slot, keeping its classroom, when all its resources fit there.
+     */
+    private void move(PlacedLesson lesson, int slot) {
+        int oldSlot = lesson.slot();
+        if (!state.occupancy().isClassroomFree(lesson.classroom(), slot)
+                || !state.occupancy().isTeacherFree(lesson.teacher(), slot)) {
+            return;
+        }
+        state.unplace(lesson);
+        boolean fits = state.fits(slot, lesson.classroom(), lesson.teacher(), lesson.subject(), lesson.students());
+        state.place(lesson, fits ? slot : oldSlot, lesson.classroom());
+    }
+
+    /**
+     * Exchanges the slots and classrooms of two lessons when both fit in the place of the other. Returns whether the
+     * lessons were exchanged, otherwise both stay where they were.
+     */
+    private boolean exchange(PlacedLesson first, PlacedLesson second) {
+        int firstSlot = first.slot();
+        int firstClassroom = first.classroom();
+        int secondSlot = second.slot();
+        int secondClassroom = second.classroom();
+        if (firstSlot == secondSlot || !teacherWorkingSlots[first.teacher()].get(secondSlot)
+                || !teacherWorkingSlots[second.teacher()].get(firstSlot)) {
+            return false;
+        }
+
+        state.unplace(first);
+        state.unplace(second);
+        if (state.fits(secondSlot, secondClassroom, first.teacher(), first.subject(), first.students())) {
+            state.place(first, secondSlot, secondClassroom);
+            if (state.fits(firstSlot, firstClassroom, second.teacher(), second.subject(), second.students())) {
+                state.place(second, firstSlot, firstClassroom);
+                return true;
+            }
+            state.unplace(first);
+        }
+        state.place(first, firstSlot, firstClassroom);
+        state.place(second, secondSlot, secondClassroom);
+        return false;
+    }
+
+    private List<PlacedLesson> lessonsOf(int subject) {
+        List<PlacedLesson> lessons = new ArrayList<>();
+        for (PlacedLesson lesson : state.lessons()) {
+            if (lesson.subject() == subject) {
+                lessons.add(lesson);
+            }
+        }
+        return lessons;
+    }
+
+    private int findFreeTeacher(int subject, int slot) {
+        for (int teacher : subjectTeachers[subject]) {
+            if (teacherWorkingSlots[teacher].get(slot) && state.occupancy().isTeacherFree(teacher, slot)) {
+                return teacher;
+            }
+        }
+        return -1;
+    }
+
+    private int findFreeClassroom(int slot) {
+        for (int classroom = 0; classroom < classroomCount; classroom++) {
+            if (state.occupancy().isClassroomFree(classroom, slot)) {
+                return classroom;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.service.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs several greedy passes of {@link ClassroomScheduler} in parallel and keeps the best one.
+ * <p>
+ * The first start is the plain deterministic pass, every other start shuffles classroom, slot and subject-teacher
+ * pair order with its own seed derived from the configured one. The winner is the pass with the fewest unmet
+ * lesson-units, ties go to the lower start number, so the result only depends on the seed and not on the number of
+ * threads or on timing. A cancelled run skips the starts that have not begun yet and cuts the running ones short, the
+ * first start always begins.
+ */
+public class MultiStartScheduler {
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final Supplier<ClassroomScheduler> schedulerFactory;
+    private final int threads;
+    private final int starts;
+    private final long seed;
+    private final SolverControl control;
+    private final AtomicInteger bestUnmetUnits;
+
+    public MultiStartScheduler(Supplier<ClassroomScheduler> schedulerFactory, int threads, int starts, long seed,
+            SolverControl control) {
+        this.schedulerFactory = schedulerFactory;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.starts = Math.max(starts, 1);
+        this.seed = seed;
+        this.control = control;
+        this.bestUnmetUnits = new AtomicInteger(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the scheduler holding the best schedule found over all starts.
+     */
+    public ClassroomScheduler solve() {
+        if (starts == 1) {
+            return runStart(0);
+        }
+
+        // Every task keeps its scheduler only while it is the best so far, so memory grows with the pool size
+        Best best = new Best();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < starts; start++) {
+            int current = start;
+            tasks.add(() -> {
+                best.offer(runStart(current), current);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(threads, starts));
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+            return best.scheduler;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Schedule generation was interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to generate schedule", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ClassroomScheduler runStart(int start) {
+        if (start > 0 && control.isCancelled()) {
+            return null;
+        }
+        ClassroomScheduler scheduler = schedulerFactory.get();
+        scheduler.placeLessons(start == 0 ? null : new Random(seed + start * SEED_INCREMENT), control);
+        scheduler.recordStatistics(control);
+
+        int best = bestUnmetUnits.accumulateAndGet(scheduler.getUnmetUnits(), Math::min);
+        control.report(() -> scheduler.progress(SolverProgress.Phase.CONSTRUCTION, best));
+        return scheduler;
+    }
+
+    /**
+     * Best finished start, fewest unmet lesson-units first and the lower start number on a tie.
+     */
+    private static final class Best {
+        private ClassroomScheduler scheduler;
+        private int start;
+
+        synchronized void offer(ClassroomScheduler candidate, int candidateStart) {
+            if (candidate == null) {
+                return;
+            }
+            if (scheduler == null || candidate.getUnmetUnits() < scheduler.getUnmetUnits()
+                    || candidate.getUnmetUnits() == scheduler.getUnmetUnits() && candidateStart < start) {
+                scheduler = candidate;
+                start = candidateStart;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.service.schedule;
+
+import java.util.BitSet;
+
+/**
+ * Tracks which week slots are already taken by every teacher, student and classroom.
+ * <p>
+ * Resources are addressed by their dense scheduler index. Each one owns a {@link BitSet} where bit {@code n} is set
+ * when the resource is busy in slot {@code n} of the {@link SlotGrid}, so an availability check is a single bit
+ * lookup instead of a scan over the schedule.
+ */
+class OccupancyIndex {
+    private final BitSet[] teacherSlots;
+    private final BitSet[] studentSlots;
+    private final BitSet[] classroomSlots;
+
+    OccupancyIndex(int teacherCount, int studentCount, int classroomCount) {
+        this.teacherSlots = createSlots(teacherCount);
+        this.studentSlots = createSlots(studentCount);
+        this.classroomSlots = createSlots(classroomCount);
+    }
+
+    boolean isTeacherFree(int teacher, int slot) {
+        return !teacherSlots[teacher].get(slot);
+    }
+
+    boolean isStudentFree(int student, int slot) {
+        return !studentSlots[student].get(slot);
+    }
+
+    boolean isClassroomFree(int classroom, int slot) {
+        return !classroomSlots[classroom].get(slot);
+    }
+
+    void occupy(int slot, int classroom, int teacher, int[] students) {
+        classroomSlots[classroom].set(slot);
+        teacherSlots[teacher].set(slot);
+        for (int student : students) {
+            studentSlots[student].set(slot);
+        }
+    }
+
+    void release(int slot, int classroom, int teacher, int[] students) {
+        classroomSlots[classroom].clear(slot);
+        teacherSlots[teacher].clear(slot);
+        for (int student : students) {
+            studentSlots[student].clear(slot);
+        }
+    }
+
+    void occupyStudent(int student, int slot) {
+        studentSlots[student].set(slot);
+    }
+
+    void releaseStudent(int student, int slot) {
+        studentSlots[student].clear(slot);
+    }
+
+    private static BitSet[] createSlots(int count) {
+        BitSet[] slots = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = new BitSet();
+        }
+        return slots;
+    }
+}
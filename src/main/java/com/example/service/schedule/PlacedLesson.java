@@ -0,0 +1,53 @@
+package com.example.service.schedule;
+
+/**
+ * Lesson placed on the {@link SlotGrid} while the schedule is being built.
+ * <p>
+ * Classroom, teacher, subject and students are dense scheduler indices, not entity ids. Slot, classroom and students
+ * change when the lesson is moved or regrouped by {@link ScheduleState}, the students array itself is never modified
+ * in place.
+ */
+final class PlacedLesson {
+    private final int teacher;
+    private final int subject;
+    private int slot;
+    private int classroom;
+    private int[] students;
+
+    PlacedLesson(int slot, int classroom, int teacher, int subject, int[] students) {
+        this.slot = slot;
+        this.classroom = classroom;
+        this.teacher = teacher;
+        this.subject = subject;
+        this.students = students;
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    int classroom() {
+        return classroom;
+    }
+
+    int teacher() {
+        return teacher;
+    }
+
+    int subject() {
+        return subject;
+    }
+
+    int[] students() {
+        return students;
+    }
+
+    void moveTo(int slot, int classroom) {
+        this.slot = slot;
+        this.classroom = classroom;
+    }
+
+    void setStudents(int[] students) {
+        this.students = students;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.service.schedule;
+
+/**
+ * Remaining weekly lessons per student and subject.
+ * <p>
+ * Starts from the weekly demand of the {@link SchedulingProblem} and keeps the remaining demand in a single primitive
+ * {@code int[]} of {@code studentCount * subjectCount} cells, indexed like the problem.
+ */
+public final class RequirementMatrix {
+    private final SchedulingProblem problem;
+    private final int[] remaining;
+
+    RequirementMatrix(SchedulingProblem problem) {
+        this.problem = problem;
+        this.remaining = problem.weeklyLessons().clone();
+    }
+
+    public int studentCount() {
+        return problem.studentCount();
+    }
+
+    public int subjectCount() {
+        return problem.subjectCount();
+    }
+
+    public boolean isEnrolled(int student, int subject) {
+        return problem.isEnrolled(student, subject);
+    }
+
+    public int remaining(int student, int subject) {
+        return remaining[cell(student, subject)];
+    }
+
+    /**
+     * Total number of lessons that are still missing over all students and subjects.
+     */
+    public int unmetUnits() {
+        int total = 0;
+        for (int value : remaining) {
+            total += Math.max(value, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Counts one delivered lesson and returns the remaining demand of the student for the subject. The value goes
+     * below zero when a student gets more lessons than required.
+     */
+    int decrement(int student, int subject) {
+        return --remaining[cell(student, subject)];
+    }
+
+    /**
+     * Gives back one lesson that was taken away from the student and returns the new remaining demand.
+     */
+    int increment(int student, int subject) {
+        return ++remaining[cell(student, subject)];
+    }
+
+    private int cell(int student, int subject) {
+        return student * problem.subjectCount() + subject;
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.service.schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Mutable schedule under construction together with all indices derived from it.
+ * <p>
+ * Every change goes through this class so occupancy, remaining demand, demand buckets, subject urgency, consecutive
+ * lesson runs and the unmet lesson-unit counter always agree with the placed lessons. The counter is updated on every
+ * change, which lets search phases evaluate a move from the units it adds or removes instead of summing the whole
+ * requirement matrix.
+ */
+class ScheduleState {
+    private final SlotGrid slotGrid;
+    private final RequirementMatrix requirements;
+    private final SubjectDemandIndex demand;
+    private final SubjectPriorityQueue urgency;
+    private final OccupancyIndex occupancy;
+    private final ConsecutiveLessonTracker consecutiveLessons;
+    private final List<PlacedLesson> lessons;
+    private final PlacedLesson[] studentLessonAt;
+    private final int[] classroomCapacities;
+    private int unmetUnits;
+    private long pairsEvaluated;
+    private long studentsScanned;
+    private long lessonsPlaced;
+
+    ScheduleState(SlotGrid slotGrid, RequirementMatrix requirements, SubjectDemandIndex demand,
+            SubjectPriorityQueue urgency, int teacherCount, int[] classroomCapacities, int maxConsecutiveLessons) {
+        int studentCount = requirements.studentCount();
+        this.slotGrid = slotGrid;
+        this.requirements = requirements;
+        this.demand = demand;
+        this.urgency = urgency;
+        this.classroomCapacities = classroomCapacities;
+        this.occupancy = new OccupancyIndex(teacherCount, studentCount, classroomCapacities.length);
+        this.consecutiveLessons = new ConsecutiveLessonTracker(slotGrid, studentCount, maxConsecutiveLessons);
+        this.lessons = new ArrayList<>();
+        this.studentLessonAt = new PlacedLesson[studentCount * slotGrid.slotCount()];
+        this.unmetUnits = requirements.unmetUnits();
+    }
+
+    RequirementMatrix requirements() {
+        return requirements;
+    }
+
+    SubjectDemandIndex demand() {
+        return demand;
+    }
+
+    SubjectPriorityQueue urgency() {
+        return urgency;
+    }
+
+    OccupancyIndex occupancy() {
+        return occupancy;
+    }
+
+    List<PlacedLesson> lessons() {
+        return Collections.unmodifiableList(lessons);
+    }
+
+    int unmetUnits() {
+        return unmetUnits;
+    }
+
+    SolverProgress progress(SolverProgress.Phase phase, int bestUnmetUnits) {
+        return new SolverProgress(phase, lessons.size(), slotGrid.slotCount() * classroomCapacities.length,
+                unmetUnits, bestUnmetUnits);
+    }
+
+    /**
+     * Adds the work counted since the last call to the run statistics.
+     */
+    void recordStatistics(SolverStatistics statistics) {
+        statistics.add(pairsEvaluated, studentsScanned, lessonsPlaced);
+        pairsEvaluated = 0;
+        studentsScanned = 0;
+        lessonsPlaced = 0;
+    }
+
+    int capacity(int classroom) {
+        return classroomCapacities[classroom];
+    }
+
+    boolean hasFreeSeat(PlacedLesson lesson) {
+        return lesson.students().length < classroomCapacities[lesson.classroom()];
+    }
+
+    /**
+     * Lesson the student attends in the slot, or {@code null} when the student is free.
+     */
+    PlacedLesson lessonOf(int student, int slot) {
+        return studentLessonAt[student * slotGrid.slotCount() + slot];
+    }
+
+    /**
+     * Whether the student still needs the subject, is free in the slot and would stay within the consecutive lessons
+     * limit.
+     */
+    boolean canAttend(int student, int subject, int slot) {
+        return demand.contains(student, subject)
+                && occupancy.isStudentFree(student, slot)
+                && consecutiveLessons.canPlace(student, subject, slot);
+    }
+
+    /**
+     * Whether a lesson with these resources could be placed in the slot without double-booking the classroom, the
+     * teacher or any student, without overfilling the classroom and without breaking the consecutive lessons limit.
+     * Teacher working hours are not checked here.
+     */
+    boolean fits(int slot, int classroom, int teacher, int subject, int[] students) {
+        if (!occupancy.isClassroomFree(classroom, slot) || !occupancy.isTeacherFree(teacher, slot)
+                || students.length > classroomCapacities[classroom]) {
+            return false;
+        }
+        for (int student : students) {
+            if (!occupancy.isStudentFree(student, slot) || !consecutiveLessons.canPlace(student, subject, slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Students that need the subject and can attend it in the slot, in student order.
+     */
+    int[] availableStudents(int subject, int slot) {
+        // Only students of the subject level that still need it are in the bucket
+        int candidates = demand.size(subject);
+        pairsEvaluated++;
+        studentsScanned += candidates;
+        int[] availableStudents = new int[candidates];
+        int count = 0;
+        for (int i = 0; i < candidates; i++) {
+            int student = demand.student(subject, i);
+
+            // Check if student is available at this time and would not get too many consecutive lessons
+            if (occupancy.isStudentFree(student, slot) && consecutiveLessons.canPlace(student, subject, slot)) {
+                availableStudents[count++] = student;
+            }
+        }
+        int[] result = Arrays.copyOf(availableStudents, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Students of the cohort that get a seat in a classroom of the given capacity. When the cohort does not fit, the
+     * students with the most remaining lessons of the subject are kept, in student order.
+     */
+    int[] seat(int subject, int[] students, int capacity) {
+        if (students.length <= capacity) {
+            return students;
+        }
+        int[] seated = Arrays.stream(students)
+                .boxed()
+                .sorted(Comparator.comparingInt((Integer student) -> requirements.remaining(student, subject))
+                        .reversed()
+                        .thenComparingInt(Integer::intValue))
+                .limit(capacity)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Arrays.sort(seated);
+        return seated;
+    }
+
+    PlacedLesson place(int slot, int classroom, int teacher, int subject, int[] students) {
+        PlacedLesson lesson = new PlacedLesson(slot, classroom, teacher, subject, students);
+        add(lesson);
+        return lesson;
+    }
+
+    /**
+     * Puts a lesson taken out with {@link #unplace} back into the schedule in the given slot and classroom. The lesson
+     * keeps its identity, so references to it stay valid.
+     */
+    void place(PlacedLesson lesson, int slot, int classroom) {
+        lesson.moveTo(slot, classroom);
+        add(lesson);
+    }
+
+    void unplace(PlacedLesson lesson) {
+        lessons.remove(lesson);
+        occupancy.release(lesson.slot(), lesson.classroom(), lesson.teacher(), lesson.students());
+        for (int student : lesson.students()) {
+            leave(lesson, student);
+        }
+    }
+
+    void addStudent(PlacedLesson lesson, int student) {
+        int[] students = Arrays.copyOf(lesson.students(), lesson.students().length + 1);
+        students[students.length - 1] = student;
+        Arrays.sort(students);
+        lesson.setStudents(students);
+        occupancy.occupyStudent(student, lesson.slot());
+        attend(lesson, student);
+    }
+
+    /**
+     * Takes the student out of the lesson. A lesson left without students is removed from the schedule.
+     */
+    void removeStudent(PlacedLesson lesson, int student) {
+        int[] students = Arrays.stream(lesson.students())
+                .filter(it -> it != student)
+                .toArray();
+        if (students.length == 0) {
+            unplace(lesson);
+            return;
+        }
+        lesson.setStudents(students);
+        occupancy.releaseStudent(student, lesson.slot());
+        leave(lesson, student);
+    }
+
+    private void add(PlacedLesson lesson) {
+        lessons.add(lesson);
+        lessonsPlaced++;
+        occupancy.occupy(lesson.slot(), lesson.classroom(), lesson.teacher(), lesson.students());
+        for (int student : lesson.students()) {
+            attend(lesson, student);
+        }
+    }
+
+    private void attend(PlacedLesson lesson, int student) {
+        int remaining = requirements.decrement(student, lesson.subject());
+        if (remaining >= 0) {
+            unmetUnits--;
+            urgency.unitMet(student, lesson.subject());
+        }
+        if (remaining == 0) {
+            demand.remove(student, lesson.subject());
+        }
+        consecutiveLessons.place(student, lesson.subject(), lesson.slot());
+        studentLessonAt[student * slotGrid.slotCount() + lesson.slot()] = lesson;
+    }
+
+    private void leave(PlacedLesson lesson, int student) {
+        int remaining = requirements.increment(student, lesson.subject());
+        if (remaining > 0) {
+            unmetUnits++;
+            urgency.unitFreed(student, lesson.subject());
+        }
+        if (remaining == 1) {
+            demand.add(student, lesson.subject());
+        }
+        consecutiveLessons.remove(student, lesson.slot());
+        studentLessonAt[student * slotGrid.slotCount() + lesson.slot()] = null;
+    }
+}
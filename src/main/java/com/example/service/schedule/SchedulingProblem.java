@@ -0,0 +1,283 @@
+package com.example.service.schedule;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.example.db.Classroom;
+import com.example.db.Student;
+import com.example.db.Subject;
+import com.example.db.Teacher;
+
+/**
+ * Immutable input of a scheduling run compiled from the roster entities.
+ * <p>
+ * Students, subjects, teachers and classrooms are remapped to dense indices in the order they were given. Everything
+ * the solver needs is kept in primitive arrays and bit sets: weekly demand per student and subject, enrollment and
+ * eligibility (enrolled and of the subject level), qualified teachers in both directions, teacher working slots and
+ * classroom capacities. Names are copied for the produced lessons, so a problem holds no entity references and can be
+ * shared by any number of runs and threads. Arrays returned to the package must not be modified.
+ */
+public final class SchedulingProblem {
+    private final SlotGrid slotGrid;
+
+    private final long[] studentIds;
+    private final String[] studentNames;
+    private final String[] studentSurnames;
+    private final long[] subjectIds;
+    private final String[] subjectNames;
+    private final Integer[] subjectLevels;
+    private final long[] teacherIds;
+    private final String[] teacherNames;
+    private final String[] teacherSurnames;
+    private final long[] classroomIds;
+    private final String[] classroomNames;
+    private final int[] classroomCapacities;
+
+    private final Map<Long, Integer> studentIndexById;
+    private final Map<Long, Integer> subjectIndexById;
+    private final Map<Long, Integer> teacherIndexById;
+    private final Map<Long, Integer> classroomIndexById;
+
+    private final int[] weeklyLessons;
+    private final BitSet enrolled;
+    private final BitSet eligible;
+    private final int[][] teacherSubjects;
+    private final int[][] subjectTeachers;
+    private final BitSet[] teacherWorkingSlots;
+
+    private SchedulingProblem(List<Student> students, List<Teacher> teachers, List<Subject> subjects,
+            List<Classroom> classrooms, SlotGrid slotGrid) {
+        this.slotGrid = slotGrid;
+
+        this.subjectIds = new long[subjects.size()];
+        this.subjectNames = new String[subjects.size()];
+        this.subjectLevels = new Integer[subjects.size()];
+        this.subjectIndexById = new HashMap<>();
+        for (int i = 0; i < subjects.size(); i++) {
+            Subject subject = subjects.get(i);
+            subjectIds[i] = subject.getId();
+            subjectNames[i] = subject.getName();
+            subjectLevels[i] = subject.getLevel();
+            subjectIndexById.put(subject.getId(), i);
+        }
+
+        this.studentIds = new long[students.size()];
+        this.studentNames = new String[students.size()];
+        this.studentSurnames = new String[students.size()];
+        this.studentIndexById = new HashMap<>();
+        this.weeklyLessons = new int[students.size() * subjects.size()];
+        this.enrolled = new BitSet(weeklyLessons.length);
+        this.eligible = new BitSet(weeklyLessons.length);
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            studentIds[i] = student.getId();
+            studentNames[i] = student.getName();
+            studentSurnames[i] = student.getSurname();
+            studentIndexById.put(student.getId(), i);
+            for (Subject subject : student.getSubjects()) {
+                Integer index = subjectIndexById.get(subject.getId());
+                if (index != null) {
+                    int cell = i * subjects.size() + index;
+                    enrolled.set(cell);
+                    weeklyLessons[cell] = subject.getTotalCountPerWeek();
+                    if (weeklyLessons[cell] > 0 && Objects.equals(subject.getLevel(), student.getLevel())) {
+                        eligible.set(cell);
+                    }
+                }
+            }
+        }
+
+        this.teacherIds = new long[teachers.size()];
+        this.teacherNames = new String[teachers.size()];
+        this.teacherSurnames = new String[teachers.size()];
+        this.teacherIndexById = new HashMap<>();
+        this.teacherSubjects = new int[teachers.size()][];
+        this.teacherWorkingSlots = new BitSet[teachers.size()];
+        int[] teacherCounts = new int[subjects.size()];
+        for (int i = 0; i < teachers.size(); i++) {
+            Teacher teacher = teachers.get(i);
+            teacherIds[i] = teacher.getId();
+            teacherNames[i] = teacher.getName();
+            teacherSurnames[i] = teacher.getSurname();
+            teacherIndexById.put(teacher.getId(), i);
+            teacherWorkingSlots[i] = slotGrid.windowMask(teacher.getTimeStart(), teacher.getTimeEnd());
+            teacherSubjects[i] = teacher.getSubjects().stream()
+                    .map(subject -> subjectIndexById.get(subject.getId()))
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .sorted()
+                    .toArray();
+            for (int subject : teacherSubjects[i]) {
+                teacherCounts[subject]++;
+            }
+        }
+
+        this.subjectTeachers = new int[subjects.size()][];
+        for (int subject = 0; subject < subjects.size(); subject++) {
+            subjectTeachers[subject] = new int[teacherCounts[subject]];
+            teacherCounts[subject] = 0;
+        }
+        for (int teacher = 0; teacher < teachers.size(); teacher++) {
+            for (int subject : teacherSubjects[teacher]) {
+                subjectTeachers[subject][teacherCounts[subject]++] = teacher;
+            }
+        }
+
+        this.classroomIds = new long[classrooms.size()];
+        this.classroomNames = new String[classrooms.size()];
+        this.classroomCapacities = new int[classrooms.size()];
+        this.classroomIndexById = new HashMap<>();
+        for (int i = 0; i < classrooms.size(); i++) {
+            Classroom classroom = classrooms.get(i);
+            classroomIds[i] = classroom.getId();
+            classroomNames[i] = classroom.getName();
+            classroomCapacities[i] = classroom.getCapacity();
+            classroomIndexById.put(classroom.getId(), i);
+        }
+    }
+
+    /**
+     * Compiles the roster entities on the standard slot grid. Lazy collections are read here, so this has to run
+     * while the entities are attached.
+     */
+    public static SchedulingProblem of(List<Student> students, List<Teacher> teachers, List<Subject> subjects,
+            List<Classroom> classrooms) {
+        return new SchedulingProblem(students, teachers, subjects, classrooms, SlotGrid.standard());
+    }
+
+    public SlotGrid slotGrid() {
+        return slotGrid;
+    }
+
+    public int studentCount() {
+        return studentIds.length;
+    }
+
+    public int subjectCount() {
+        return subjectIds.length;
+    }
+
+    public int teacherCount() {
+        return teacherIds.length;
+    }
+
+    public int classroomCount() {
+        return classroomIds.length;
+    }
+
+    public long studentId(int student) {
+        return studentIds[student];
+    }
+
+    public String studentName(int student) {
+        return studentNames[student];
+    }
+
+    public String studentSurname(int student) {
+        return studentSurnames[student];
+    }
+
+    public long subjectId(int subject) {
+        return subjectIds[subject];
+    }
+
+    public String subjectName(int subject) {
+        return subjectNames[subject];
+    }
+
+    public Integer subjectLevel(int subject) {
+        return subjectLevels[subject];
+    }
+
+    public long teacherId(int teacher) {
+        return teacherIds[teacher];
+    }
+
+    public String teacherName(int teacher) {
+        return teacherNames[teacher];
+    }
+
+    public String teacherSurname(int teacher) {
+        return teacherSurnames[teacher];
+    }
+
+    public long classroomId(int classroom) {
+        return classroomIds[classroom];
+    }
+
+    public String classroomName(int classroom) {
+        return classroomNames[classroom];
+    }
+
+    public int classroomCapacity(int classroom) {
+        return classroomCapacities[classroom];
+    }
+
+    /**
+     * Index of the student with this id, or {@code -1} when the problem does not contain it.
+     */
+    public int studentIndex(long id) {
+        return studentIndexById.getOrDefault(id, -1);
+    }
+
+    public int subjectIndex(long id) {
+        return subjectIndexById.getOrDefault(id, -1);
+    }
+
+    public int teacherIndex(long id) {
+        return teacherIndexById.getOrDefault(id, -1);
+    }
+
+    public int classroomIndex(long id) {
+        return classroomIndexById.getOrDefault(id, -1);
+    }
+
+    /**
+     * Lessons of the subject the student needs per week, zero when not enrolled.
+     */
+    public int weeklyLessons(int student, int subject) {
+        return weeklyLessons[cell(student, subject)];
+    }
+
+    public boolean isEnrolled(int student, int subject) {
+        return enrolled.get(cell(student, subject));
+    }
+
+    /**
+     * Whether the student needs lessons of the subject and has the subject level, so they can attend its lessons.
+     */
+    public boolean isEligible(int student, int subject) {
+        return eligible.get(cell(student, subject));
+    }
+
+    public boolean isTeacherWorking(int teacher, int slot) {
+        return teacherWorkingSlots[teacher].get(slot);
+    }
+
+    int[][] teacherSubjects() {
+        return teacherSubjects;
+    }
+
+    int[][] subjectTeachers() {
+        return subjectTeachers;
+    }
+
+    int[] classroomCapacities() {
+        return classroomCapacities;
+    }
+
+    BitSet[] teacherWorkingSlots() {
+        return teacherWorkingSlots;
+    }
+
+    int[] weeklyLessons() {
+        return weeklyLessons;
+    }
+
+    private int cell(int student, int subject) {
+        return student * subjectIds.length + subject;
+    }
+}
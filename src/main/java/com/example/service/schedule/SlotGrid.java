@@ -0,0 +1,116 @@
+package com.example.service.schedule;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+import static com.example.service.schedule.ClassroomScheduler.BREAK_DURATION_MINUTES;
+import static com.example.service.schedule.ClassroomScheduler.LESSONS_PER_DAY;
+import static com.example.service.schedule.ClassroomScheduler.LESSON_DURATION_MINUTES;
+import static com.example.service.schedule.ClassroomScheduler.SCHOOL_END_TIME;
+import static com.example.service.schedule.ClassroomScheduler.SCHOOL_START_TIME;
+
+/**
+ * Compiled lesson grid of a school week.
+ * <p>
+ * A slot is a plain int {@code day * slotsPerDay + slotOfDay}, so the scheduler can compare and index slots without
+ * allocating date objects. Dates are only produced again by {@link #lessonStart} and {@link #lessonEnd}.
+ */
+public final class SlotGrid {
+    public static final int DAYS_PER_WEEK = 5;
+
+    private static final SlotGrid STANDARD = new SlotGrid(SCHOOL_START_TIME, SCHOOL_END_TIME,
+            LESSON_DURATION_MINUTES, BREAK_DURATION_MINUTES, LESSONS_PER_DAY);
+
+    private final int lessonMinutes;
+    private final int slotsPerDay;
+    private final int[] startMinuteOfDay;
+
+    public SlotGrid(LocalTime schoolStart, LocalTime schoolEnd, int lessonMinutes, int breakMinutes,
+            int lessonsPerDay) {
+        int first = schoolStart.toSecondOfDay() / 60;
+        int last = schoolEnd.toSecondOfDay() / 60;
+        int count = 0;
+        while (count < lessonsPerDay && first + count * (lessonMinutes + breakMinutes) + lessonMinutes <= last) {
+            count++;
+        }
+
+        this.lessonMinutes = lessonMinutes;
+        this.slotsPerDay = count;
+        this.startMinuteOfDay = new int[count];
+        for (int slot = 0; slot < count; slot++) {
+            startMinuteOfDay[slot] = first + slot * (lessonMinutes + breakMinutes);
+        }
+    }
+
+    /**
+     * Grid built from the {@link ClassroomScheduler} timing constants.
+     */
+    public static SlotGrid standard() {
+        return STANDARD;
+    }
+
+    public int slotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public int slotCount() {
+        return DAYS_PER_WEEK * slotsPerDay;
+    }
+
+    public int day(int slot) {
+        return slot / slotsPerDay;
+    }
+
+    public int slotOfDay(int slot) {
+        return slot % slotsPerDay;
+    }
+
+    /**
+     * Mask of the slots whose whole lesson fits into the given working hours.
+     */
+    public BitSet windowMask(LocalTime from, LocalTime to) {
+        int fromMinute = (from.toSecondOfDay() + 59) / 60;
+        int toMinute = to.toSecondOfDay() / 60;
+        BitSet mask = new BitSet(slotCount());
+        for (int slotOfDay = 0; slotOfDay < slotsPerDay; slotOfDay++) {
+            int start = startMinuteOfDay[slotOfDay];
+            if (start >= fromMinute && start + lessonMinutes <= toMinute) {
+                for (int day = 0; day < DAYS_PER_WEEK; day++) {
+                    mask.set(day * slotsPerDay + slotOfDay);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Slot of a lesson starting at {@code lessonStart} in the week starting at {@code weekStart}, or {@code -1} when
+     * the time is not a lesson start of that week.
+     */
+    public int slotOf(LocalDateTime weekStart, LocalDateTime lessonStart) {
+        long day = ChronoUnit.DAYS.between(weekStart.toLocalDate(), lessonStart.toLocalDate());
+        int minute = lessonStart.toLocalTime().toSecondOfDay() / 60;
+        if (day < 0 || day >= DAYS_PER_WEEK || lessonStart.toLocalTime().getSecond() != 0) {
+            return -1;
+        }
+        for (int slotOfDay = 0; slotOfDay < slotsPerDay; slotOfDay++) {
+            if (startMinuteOfDay[slotOfDay] == minute) {
+                return (int) day * slotsPerDay + slotOfDay;
+            }
+        }
+        return -1;
+    }
+
+    public LocalDateTime lessonStart(LocalDateTime weekStart, int slot) {
+        return weekStart.toLocalDate()
+                .plusDays(day(slot))
+                .atStartOfDay()
+                .plusMinutes(startMinuteOfDay[slotOfDay(slot)]);
+    }
+
+    public LocalDateTime lessonEnd(LocalDateTime weekStart, int slot) {
+        return lessonStart(weekStart, slot).plusMinutes(lessonMinutes);
+    }
+}
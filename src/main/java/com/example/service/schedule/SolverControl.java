@@ -0,0 +1,70 @@
+package com.example.service.schedule;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Connects a running solver with the outside world: the solver reports progress through it and stops at the next
+ * check once {@link #cancel()} was called, keeping the best schedule it has found so far.
+ * <p>
+ * Progress from hot loops goes through {@link #report(Supplier)}, which builds and forwards a snapshot at most once
+ * per interval, so checking it on every iteration is cheap.
+ */
+public class SolverControl {
+    private final Consumer<SolverProgress> listener;
+    private final long intervalNanos;
+    private final AtomicLong lastReport;
+    private final SolverStatistics statistics;
+    private volatile boolean cancelled;
+
+    public SolverControl(Consumer<SolverProgress> listener, Duration interval) {
+        this.listener = listener;
+        this.intervalNanos = interval.toNanos();
+        this.lastReport = new AtomicLong(System.nanoTime());
+        this.statistics = new SolverStatistics();
+    }
+
+    /**
+     * Control that is never cancelled and drops all progress.
+     */
+    public static SolverControl none() {
+        return new SolverControl(progress -> {
+        }, Duration.ofDays(1));
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Work counters of the run controlled by this instance.
+     */
+    public SolverStatistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Forwards the progress when the interval since the last report has passed.
+     */
+    public void report(Supplier<SolverProgress> progress) {
+        long now = System.nanoTime();
+        long last = lastReport.get();
+        if (now - last >= intervalNanos && lastReport.compareAndSet(last, now)) {
+            listener.accept(progress.get());
+        }
+    }
+
+    /**
+     * Forwards the progress right away, for phase changes and the final result.
+     */
+    public void publish(SolverProgress progress) {
+        lastReport.set(System.nanoTime());
+        listener.accept(progress);
+    }
+}
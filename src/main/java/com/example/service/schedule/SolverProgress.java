@@ -0,0 +1,20 @@
+package com.example.service.schedule;
+
+/**
+ * Snapshot of a running schedule generation.
+ *
+ * @param phase          phase the solver is in
+ * @param filledSlots    classroom-slots that hold a lesson
+ * @param totalSlots     classroom-slots of the week
+ * @param unmetUnits     lesson-units the current schedule is missing
+ * @param bestUnmetUnits lesson-units the best schedule found so far is missing
+ */
+public record SolverProgress(Phase phase, int filledSlots, int totalSlots, int unmetUnits, int bestUnmetUnits) {
+
+    public enum Phase {
+        CONSTRUCTION,
+        EXACT_SEARCH,
+        LOCAL_SEARCH,
+        FINISHED
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.service.schedule;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Work done by the solvers of one run, summed over all threads.
+ * <p>
+ * Schedulers count in plain fields and add their counts here when a phase ends, see
+ * {@link ClassroomScheduler#recordStatistics(SolverControl)}, so the hot loops never touch shared state.
+ */
+public final class SolverStatistics {
+    private final LongAdder pairsEvaluated = new LongAdder();
+    private final LongAdder studentsScanned = new LongAdder();
+    private final LongAdder lessonsPlaced = new LongAdder();
+
+    void add(long pairs, long students, long lessons) {
+        pairsEvaluated.add(pairs);
+        studentsScanned.add(students);
+        lessonsPlaced.add(lessons);
+    }
+
+    /**
+     * Cohorts computed for a subject-teacher pair in a slot.
+     */
+    public long getPairsEvaluated() {
+        return pairsEvaluated.sum();
+    }
+
+    /**
+     * Students checked while computing those cohorts.
+     */
+    public long getStudentsScanned() {
+        return studentsScanned.sum();
+    }
+
+    /**
+     * Lessons put on the grid, including the ones a search phase takes back later.
+     */
+    public long getLessonsPlaced() {
+        return lessonsPlaced.sum();
+    }
+}
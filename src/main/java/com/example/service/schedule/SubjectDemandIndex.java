@@ -0,0 +1,68 @@
+package com.example.service.schedule;
+
+import java.util.Arrays;
+
+/**
+ * Buckets of students that still need each subject.
+ * <p>
+ * A bucket only holds students of the subject level with remaining demand for it. Students are removed once their
+ * requirement reaches zero, so the candidate set of a subject shrinks while the schedule is being built, and are
+ * added back when a lesson is taken away from them. Removal swaps the last member into the freed position, which
+ * keeps both operations constant time.
+ */
+class SubjectDemandIndex {
+    private final SchedulingProblem problem;
+    private final int subjectCount;
+    private final int[][] members;
+    private final int[] sizes;
+    private final int[] positions;
+
+    SubjectDemandIndex(SchedulingProblem problem) {
+        int studentCount = problem.studentCount();
+        this.problem = problem;
+        this.subjectCount = problem.subjectCount();
+        this.members = new int[subjectCount][studentCount];
+        this.sizes = new int[subjectCount];
+        this.positions = new int[studentCount * subjectCount];
+        Arrays.fill(positions, -1);
+
+        for (int subject = 0; subject < subjectCount; subject++) {
+            for (int student = 0; student < studentCount; student++) {
+                add(student, subject);
+            }
+            members[subject] = Arrays.copyOf(members[subject], Math.max(sizes[subject], 1));
+        }
+    }
+
+    int size(int subject) {
+        return sizes[subject];
+    }
+
+    int student(int subject, int position) {
+        return members[subject][position];
+    }
+
+    boolean contains(int student, int subject) {
+        return positions[student * subjectCount + subject] >= 0;
+    }
+
+    void remove(int student, int subject) {
+        int cell = student * subjectCount + subject;
+        int position = positions[cell];
+        if (position < 0) {
+            return;
+        }
+        int last = members[subject][--sizes[subject]];
+        members[subject][position] = last;
+        positions[last * subjectCount + subject] = position;
+        positions[cell] = -1;
+    }
+
+    void add(int student, int subject) {
+        if (contains(student, subject) || !problem.isEligible(student, subject)) {
+            return;
+        }
+        positions[student * subjectCount + subject] = sizes[subject];
+        members[subject][sizes[subject]++] = student;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.service.schedule;
+
+/**
+ * Subjects that still have unmet demand, most urgent first.
+ * <p>
+ * A subject is more urgent the more lesson-units its eligible students still miss per qualified teacher, so subjects
+ * few teachers can cover are scheduled before their teachers' slots are gone. Ties go to the lower subject index,
+ * which keeps the order deterministic. Subjects without demand or without a teacher are not queued.
+ * <p>
+ * The queue is an indexed binary heap: every subject knows its heap position, so a demand change moves it in
+ * {@code O(log subjects)} while lessons are placed and taken back.
+ */
+class SubjectPriorityQueue {
+    private final SchedulingProblem problem;
+    private final int[] demand;
+    private final int[] teachers;
+    private final int[] heap;
+    private final int[] positions;
+    private int size;
+
+    SubjectPriorityQueue(SchedulingProblem problem) {
+        int subjectCount = problem.subjectCount();
+        this.problem = problem;
+        this.demand = new int[subjectCount];
+        this.teachers = new int[subjectCount];
+        this.heap = new int[subjectCount];
+        this.positions = new int[subjectCount];
+
+        for (int subject = 0; subject < subjectCount; subject++) {
+            teachers[subject] = problem.subjectTeachers()[subject].length;
+            for (int student = 0; student < problem.studentCount(); student++) {
+                if (problem.isEligible(student, subject)) {
+                    demand[subject] += problem.weeklyLessons(student, subject);
+                }
+            }
+            positions[subject] = -1;
+            update(subject);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes and returns the most urgent subject. It stays out of the queue until {@link #offer} or a demand change
+     * puts it back.
+     */
+    int poll() {
+        int subject = heap[0];
+        removeAt(0);
+        return subject;
+    }
+
+    /**
+     * Puts a polled subject back when it still has demand.
+     */
+    void offer(int subject) {
+        update(subject);
+    }
+
+    /**
+     * Counts one delivered lesson-unit of a student that needed it.
+     */
+    void unitMet(int student, int subject) {
+        if (problem.isEligible(student, subject)) {
+            demand[subject]--;
+            update(subject);
+        }
+    }
+
+    /**
+     * Counts one lesson-unit that a student needs again.
+     */
+    void unitFreed(int student, int subject) {
+        if (problem.isEligible(student, subject)) {
+            demand[subject]++;
+            update(subject);
+        }
+    }
+
+    private void update(int subject) {
+        boolean queued = demand[subject] > 0 && teachers[subject] > 0;
+        int position = positions[subject];
+        if (position < 0) {
+            if (queued) {
+                heap[size] = subject;
+                positions[subject] = size;
+                siftUp(size++);
+            }
+        } else if (!queued) {
+            removeAt(position);
+        } else {
+            siftDown(siftUp(position));
+        }
+    }
+
+    private void removeAt(int position) {
+        positions[heap[position]] = -1;
+        int last = heap[--size];
+        if (position < size) {
+            heap[position] = last;
+            positions[last] = position;
+            siftDown(siftUp(position));
+        }
+    }
+
+    private int siftUp(int position) {
+        int subject = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!isMoreUrgent(subject, heap[parent])) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(subject, position);
+        return position;
+    }
+
+    private void siftDown(int position) {
+        int subject = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && isMoreUrgent(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!isMoreUrgent(heap[child], subject)) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(subject, position);
+    }
+
+    private void move(int subject, int position) {
+        heap[position] = subject;
+        positions[subject] = position;
+    }
+
+    private boolean isMoreUrgent(int subject, int other) {
+        // demand / teachers compared without division
+        long urgency = (long) demand[subject] * teachers[other];
+        long otherUrgency = (long) demand[other] * teachers[subject];
+        return urgency != otherUrgency ? urgency > otherUrgency : subject < other;
+    }
+}
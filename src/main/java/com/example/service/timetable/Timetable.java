@@ -0,0 +1,97 @@
+package com.example.service.timetable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.example.dto.ScheduledLesson;
+
+/**
+ * Immutable lessons of the live run, indexed by student and teacher.
+ * <p>
+ * Lessons are kept in start order and every index holds positions into them, so each lookup returns its lessons in
+ * start order as well. The lessons are shared between all readers and must not be modified.
+ */
+public final class Timetable {
+    private static final int[] NO_LESSONS = new int[0];
+
+    private final long version;
+    private final List<ScheduledLesson> lessons;
+    private final Map<Long, int[]> lessonsByStudent;
+    private final Map<Long, int[]> lessonsByTeacher;
+
+    Timetable(long version, List<ScheduledLesson> lessons) {
+        this.version = version;
+        this.lessons = List.copyOf(lessons);
+        this.lessonsByTeacher = index(this.lessons, lesson -> List.of(lesson.getTeacherId()));
+        this.lessonsByStudent = index(this.lessons, ScheduledLesson::getStudentIds);
+    }
+
+    /**
+     * The {@link com.example.service.ScheduleVersion} the timetable was loaded at.
+     */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return lessons.size();
+    }
+
+    /**
+     * Lessons starting between the two times, both included.
+     */
+    public List<ScheduledLesson> lessonsBetween(LocalDateTime start, LocalDateTime end) {
+        int from = firstStartingAtOrAfter(start);
+        int to = from;
+        while (to < lessons.size() && !lessons.get(to).getDateStart().isAfter(end)) {
+            to++;
+        }
+        return lessons.subList(from, to);
+    }
+
+    public List<ScheduledLesson> studentLessons(Long studentId) {
+        return lessonsAt(lessonsByStudent.getOrDefault(studentId, NO_LESSONS));
+    }
+
+    public List<ScheduledLesson> teacherLessons(Long teacherId) {
+        return lessonsAt(lessonsByTeacher.getOrDefault(teacherId, NO_LESSONS));
+    }
+
+    private List<ScheduledLesson> lessonsAt(int[] positions) {
+        return Arrays.stream(positions).mapToObj(lessons::get).toList();
+    }
+
+    private int firstStartingAtOrAfter(LocalDateTime start) {
+        int low = 0;
+        int high = lessons.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lessons.get(middle).getDateStart().isBefore(start)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static Map<Long, int[]> index(List<ScheduledLesson> lessons,
+            Function<ScheduledLesson, List<Long>> keys) {
+        Map<Long, List<Integer>> positions = new HashMap<>();
+        for (int position = 0; position < lessons.size(); position++) {
+            for (Long key : keys.apply(lessons.get(position))) {
+                positions.computeIfAbsent(key, k -> new ArrayList<>()).add(position);
+            }
+        }
+
+        Map<Long, int[]> index = new HashMap<>();
+        positions.forEach((key, keyPositions) -> index.put(key,
+                keyPositions.stream().mapToInt(Integer::intValue).toArray()));
+        return Map.copyOf(index);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.service.timetable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.config.SchedulerProperties;
+import com.example.db.LessonWeekReader;
+import com.example.dto.ScheduledLesson;
+import com.example.service.ScheduleVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the {@link Timetable} of the live run in memory, so timetable reads do not go to the database.
+ * <p>
+ * The first read after the {@link ScheduleVersion} moves on loads the timetable again and swaps it in whole. Like the
+ * compiled problem, a timetable is only served while the version it was loaded at is current. A live run with more than
+ * {@code scheduler.timetable-cache.max-lessons} lessons is not kept, reads then go to the database.
+ */
+@Service
+public class TimetableCache {
+    private final LessonWeekReader lessonWeekReader;
+    private final int maxLessons;
+    private final Counter hits;
+    private final Counter misses;
+    private final ScheduleVersion scheduleVersion;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public TimetableCache(LessonWeekReader lessonWeekReader, ScheduleVersion scheduleVersion,
+            SchedulerProperties schedulerProperties, MeterRegistry registry) {
+        this.lessonWeekReader = lessonWeekReader;
+        this.scheduleVersion = scheduleVersion;
+        this.maxLessons = schedulerProperties.getTimetableCache().getMaxLessons();
+        this.hits = Counter.builder("timetable.cache.requests")
+                .description("Timetable reads by whether the cached timetable was current")
+                .tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder("timetable.cache.requests")
+                .description("Timetable reads by whether the cached timetable was current")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("timetable.cache.lessons", snapshot, current -> current.get() != null
+                        && current.get().timetable() != null ? current.get().timetable().size() : 0)
+                .description("Lessons held by the timetable cache")
+                .register(registry);
+    }
+
+    /**
+     * The timetable of the live run, empty when it is too large to be kept.
+     */
+    public Optional<Timetable> get() {
+        long version = scheduleVersion.current();
+        Snapshot current = snapshot.get();
+        if (current != null && current.version() == version) {
+            hits.increment();
+            return Optional.ofNullable(current.timetable());
+        }
+        misses.increment();
+        return Optional.ofNullable(load(version).timetable());
+    }
+
+    /**
+     * Whether the timetable of the live run is small enough to be kept, loads it when the cached one is out of date.
+     * Not counted as a timetable read.
+     */
+    public boolean holdsLiveRun() {
+        long version = scheduleVersion.current();
+        Snapshot current = snapshot.get();
+        if (current == null || current.version() != version) {
+            current = load(version);
+        }
+        return current.timetable() != null;
+    }
+
+    private synchronized Snapshot load(long version) {
+        // Readers that missed together load once
+        Snapshot current = snapshot.get();
+        if (current != null && current.version() >= version) {
+            return current;
+        }
+        List<ScheduledLesson> lessons = lessonWeekReader.findLiveLessons();
+        Snapshot loaded = new Snapshot(version, lessons.size() <= maxLessons ? new Timetable(version, lessons) : null);
+        snapshot.set(loaded);
+        return loaded;
+    }
+
+    private record Snapshot(long version, Timetable timetable) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.service.timetable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.db.TimetableViewRepository;
+import com.example.service.RosterChangedEvent;
+import com.example.service.ScheduleChangedEvent;
+import com.example.service.ScheduleVersion;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Refreshes the materialized timetable views after a schedule or roster change has committed.
+ * <p>
+ * The views are only read while the live run is too large for the {@link TimetableCache}, so a refresh is skipped as
+ * long as the cache holds the live run. The change that makes the run outgrow the cache refreshes them, until that
+ * refresh is done reads get the rows of the last refresh under its ETag.
+ * <p>
+ * A concurrent refresh of a whole week takes about as long as publishing it, so it runs on a background thread and
+ * the change does not wait for it. Refreshes run one at a time; changes that commit while a refresh is waiting are
+ * covered by it, so a burst of lesson edits costs one extra refresh rather than one per edit.
+ * <p>
+ * The views lag behind the {@link ScheduleVersion} while a refresh is pending and stay behind when it fails, so reads
+ * from them are labelled with {@link #etag()}, the version the last successful refresh covers. A refresh covers the
+ * version of the latest change that queued it, which {@link ScheduleVersion} has counted before this listener runs.
+ * The same happens once at startup, until the first refresh their ETag belongs to no version.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimetableViewRefresher {
+    private final TimetableViewRepository timetableViewRepository;
+    private final TimetableCache timetableCache;
+    private final ScheduleVersion scheduleVersion;
+    private volatile long refreshedVersion = -1;
+    private final AtomicLong queuedVersion = new AtomicLong(-1);
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("timetable-view-refresh").factory());
+
+    /**
+     * ETag of the rows the views hold now.
+     */
+    public String etag() {
+        return scheduleVersion.viewEtag(refreshedVersion);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        queueRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        queueRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRosterChanged(RosterChangedEvent event) {
+        queueRefresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void queueRefresh() {
+        queuedVersion.accumulateAndGet(scheduleVersion.current(), Math::max);
+        if (refreshQueued.compareAndSet(false, true)) {
+            executor.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        // Cleared before the refresh starts, a change committed from now on queues the next one
+        refreshQueued.set(false);
+        // Committed before it was queued, so the refresh sees at least the changes of this version
+        long version = queuedVersion.get();
+        try {
+            if (timetableCache.holdsLiveRun()) {
+                return;
+            }
+            timetableViewRepository.refresh();
+            refreshedVersion = version;
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the timetable views", e);
+        }
+    }
+}
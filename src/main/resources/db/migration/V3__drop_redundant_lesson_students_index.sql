@@ -0,0 +1,3 @@
+-- The primary key (lesson_id, student_id) already serves lookups by lesson_id,
+-- the extra index only slows down publishing a schedule
+DROP INDEX IF EXISTS idx_lesson_students_lesson_id;
@@ -0,0 +1,24 @@
+-- Every generated schedule is written as a run, readers only see the live run
+CREATE TABLE schedule_runs (
+    id BIGSERIAL PRIMARY KEY,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    live BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+-- At most one run is live
+CREATE UNIQUE INDEX unique_live_schedule_run ON schedule_runs(live) WHERE live;
+
+-- Existing lessons become the first live run
+INSERT INTO schedule_runs (live) VALUES (TRUE);
+
+ALTER TABLE lessons ADD COLUMN run_id BIGINT REFERENCES schedule_runs(id) ON DELETE CASCADE;
+UPDATE lessons SET run_id = (SELECT id FROM schedule_runs);
+ALTER TABLE lessons ALTER COLUMN run_id SET NOT NULL;
+
+-- Lessons of different runs share classroom-slots, a classroom-slot is only unique within its run.
+-- The teacher and subject variants are implied by this one.
+ALTER TABLE lessons
+    DROP CONSTRAINT unique_classroom_date_start,
+    DROP CONSTRAINT unique_classroom_teacher_date_start,
+    DROP CONSTRAINT unique_classroom_subject_date_start,
+    ADD CONSTRAINT unique_run_classroom_date_start UNIQUE (run_id, classroom_id, date_start);
@@ -0,0 +1,36 @@
+-- Ready-to-serve timetable rows of the live run, refreshed after every schedule change.
+-- The unique indexes allow REFRESH CONCURRENTLY and serve a timetable with one index range scan.
+CREATE MATERIALIZED VIEW mv_student_timetable AS
+SELECT ls.student_id,
+       l.id AS lesson_id,
+       l.date_start,
+       l.date_end,
+       sub.name AS subject_name,
+       sub.level AS subject_level,
+       t.name || ' ' || t.surname AS teacher_name,
+       c.name AS classroom_name
+FROM lessons l
+JOIN schedule_runs r ON r.id = l.run_id AND r.live
+JOIN lesson_students ls ON ls.lesson_id = l.id
+JOIN subjects sub ON sub.id = l.subject_id
+JOIN teachers t ON t.id = l.teacher_id
+JOIN classrooms c ON c.id = l.classroom_id;
+
+CREATE UNIQUE INDEX unique_mv_student_timetable ON mv_student_timetable(student_id, date_start, lesson_id);
+
+CREATE MATERIALIZED VIEW mv_teacher_timetable AS
+SELECT l.teacher_id,
+       l.id AS lesson_id,
+       l.date_start,
+       l.date_end,
+       sub.name AS subject_name,
+       sub.level AS subject_level,
+       c.name AS classroom_name,
+       t.name || ' ' || t.surname AS teacher_name
+FROM lessons l
+JOIN schedule_runs r ON r.id = l.run_id AND r.live
+JOIN subjects sub ON sub.id = l.subject_id
+JOIN teachers t ON t.id = l.teacher_id
+JOIN classrooms c ON c.id = l.classroom_id;
+
+CREATE UNIQUE INDEX unique_mv_teacher_timetable ON mv_teacher_timetable(teacher_id, date_start, lesson_id);
@@ -0,0 +1,2 @@
+-- Counts the lesson edits of a run after it was published, a repair only replaces the revision it was computed from
+ALTER TABLE schedule_runs ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,82 @@
+package com.example.controller;
+
+import java.time.LocalDateTime;
+
+import com.example.service.ClassroomService;
+import com.example.service.ExcelReportService;
+import com.example.service.LessonService;
+import com.example.service.ScheduleChangedEvent;
+import com.example.service.ScheduleVersion;
+import com.example.service.StudentService;
+import com.example.service.TeacherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReportControllerTest {
+    private static final String REPORT = "/api/reports/student-schedule";
+    private static final LocalDateTime WEEK_START = LocalDateTime.of(2026, 10, 12, 8, 0);
+
+    private final ExcelReportService excelReportService = mock(ExcelReportService.class);
+    private final LessonService lessonService = mock(LessonService.class);
+    private final ScheduleVersion scheduleVersion = new ScheduleVersion();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(lessonService.getCurrentWeekStart()).thenReturn(WEEK_START);
+        when(excelReportService.generateStudentScheduleReport(any(), any())).thenReturn(new byte[]{1});
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(excelReportService, lessonService,
+                        mock(StudentService.class), mock(TeacherService.class), mock(ClassroomService.class),
+                        scheduleVersion))
+                .build();
+    }
+
+    @Test
+    void matchingEtagIsAnsweredWithoutRenderingTheReport() throws Exception {
+        String etag = download();
+
+        mockMvc.perform(get(REPORT).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(excelReportService, times(1)).generateStudentScheduleReport(any(), any());
+        verify(lessonService, times(1)).getWeekLessons(WEEK_START);
+    }
+
+    @Test
+    void scheduleChangeRendersTheReportAgain() throws Exception {
+        String etag = download();
+        scheduleVersion.onScheduleChanged(new ScheduleChangedEvent());
+
+        mockMvc.perform(get(REPORT).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void newWeekRendersTheReportAgain() throws Exception {
+        String etag = download();
+        when(lessonService.getCurrentWeekStart()).thenReturn(WEEK_START.plusWeeks(1));
+
+        mockMvc.perform(get(REPORT).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(lessonService).getWeekLessons(WEEK_START.plusWeeks(1));
+    }
+
+    private String download() throws Exception {
+        String etag = mockMvc.perform(get(REPORT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/");
+        return etag;
+    }
+}
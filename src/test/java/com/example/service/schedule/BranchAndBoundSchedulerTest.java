@@ -0,0 +1,58 @@
+package com.example.service.schedule;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+import com.example.db.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_END;
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_START;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BranchAndBoundSchedulerTest {
+    private SchedulingProblem problem;
+
+    /**
+     * Two subjects can only be taught in the first lesson of the day. Every day needs the pair subject in the large
+     * classroom and the single subject in the small one, with the pair subject coming second in pair order. Teachers
+     * of the pair subject that never work lower its urgency, so a greedy pass comparing one subject gets it wrong.
+     */
+    @BeforeEach
+    void setUp() {
+        TestSchool school = new TestSchool();
+        Subject single = school.subject(5);
+        Subject pair = school.subject(5);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, single);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, pair);
+        school.teacher(LocalTime.of(18, 0), LocalTime.of(19, 0), pair);
+        school.teacher(LocalTime.of(18, 0), LocalTime.of(19, 0), pair);
+        school.student(single);
+        school.student(pair);
+        school.student(pair);
+        school.classroom(2);
+        school.classroom(1);
+        problem = school.problem();
+    }
+
+    @Test
+    void greedyPassMissesLessons() {
+        ClassroomScheduler greedy = new ClassroomScheduler(problem, 4, 1);
+        greedy.placeLessons(null);
+
+        assertThat(greedy.getUnmetUnits()).isPositive();
+    }
+
+    @Test
+    void searchFindsScheduleThatSeatsTheLaterPairInTheLargerClassroom() {
+        ClassroomScheduler scheduler = new BranchAndBoundScheduler(new ClassroomScheduler(problem, 4, 1),
+                Duration.ofSeconds(30), SolverControl.none())
+                .solve();
+
+        assertThat(scheduler.getUnmetUnits()).isZero();
+        assertThat(scheduler.state().lessons()).hasSize(10)
+                .allSatisfy(lesson -> assertThat(lesson.students().length)
+                        .isLessThanOrEqualTo(scheduler.state().capacity(lesson.classroom())));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.service.schedule;
+
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsecutiveLessonTrackerTest {
+    private static final int MATH = 0;
+    private static final int ART = 1;
+
+    /**
+     * Four slots a day, slot 4 is the first one of the second day.
+     */
+    private final SlotGrid slotGrid = new SlotGrid(LocalTime.of(9, 0), LocalTime.of(13, 0), 40, 10, 4);
+
+    @Test
+    void runOfTheSameSubjectIsLimited() {
+        ConsecutiveLessonTracker tracker = new ConsecutiveLessonTracker(slotGrid, 2, 2);
+        tracker.place(0, MATH, 0);
+        tracker.place(0, MATH, 1);
+
+        assertThat(tracker.canPlace(0, MATH, 2)).isFalse();
+        assertThat(tracker.canPlace(0, ART, 2)).isTrue();
+        assertThat(tracker.canPlace(1, MATH, 2)).isTrue();
+    }
+
+    @Test
+    void lessonBetweenTwoRunsJoinsThem() {
+        ConsecutiveLessonTracker tracker = new ConsecutiveLessonTracker(slotGrid, 1, 2);
+        tracker.place(0, MATH, 0);
+        tracker.place(0, MATH, 2);
+
+        assertThat(tracker.canPlace(0, MATH, 1)).isFalse();
+    }
+
+    @Test
+    void runsDoNotContinueIntoTheNextDay() {
+        ConsecutiveLessonTracker tracker = new ConsecutiveLessonTracker(slotGrid, 1, 1);
+        tracker.place(0, MATH, 3);
+
+        assertThat(tracker.canPlace(0, MATH, 4)).isTrue();
+    }
+
+    @Test
+    void removingALessonSplitsItsRun() {
+        ConsecutiveLessonTracker tracker = new ConsecutiveLessonTracker(slotGrid, 1, 3);
+        tracker.place(0, MATH, 0);
+        tracker.place(0, MATH, 1);
+        tracker.place(0, MATH, 2);
+        tracker.remove(0, 1);
+        tracker.place(0, MATH, 3);
+
+        assertThat(tracker.canPlace(0, MATH, 1)).isFalse();
+        tracker.remove(0, 3);
+        assertThat(tracker.canPlace(0, MATH, 1)).isTrue();
+        assertThat(tracker.canPlace(0, MATH, 3)).isTrue();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.service.schedule;
+
+import java.util.Random;
+
+import com.example.db.Subject;
+import org.junit.jupiter.api.Test;
+
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_END;
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_START;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalSearchImproverTest {
+    private static final int MATH = 0;
+    private static final int ART = 1;
+    private static final int MUSIC = 2;
+
+    /**
+     * Every teacher only works the first lesson of the day. The math teacher gives art in the first lesson of every
+     * day but Monday, where a math lesson with a free seat clashes with the music lesson of the student that still
+     * needs math. Joining, opening and reassigning cannot help, shifting math into the slot of an art lesson can.
+     */
+    @Test
+    void shiftExchangesTheLessonThatBlocksTheSlot() {
+        TestSchool school = new TestSchool();
+        Subject math = school.subject(1);
+        Subject art = school.subject(1);
+        Subject music = school.subject(1);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, math, art);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, music);
+        school.student(math, music);
+        school.student(math);
+        for (int day = 1; day < SlotGrid.DAYS_PER_WEEK; day++) {
+            school.student(art);
+        }
+        school.classroom(2);
+        school.classroom(2);
+        SchedulingProblem problem = school.problem();
+
+        ClassroomScheduler scheduler = new ClassroomScheduler(problem, 4, 1);
+        ScheduleState state = scheduler.state();
+        int slotsPerDay = problem.slotGrid().slotsPerDay();
+        PlacedLesson mathLesson = state.place(0, 0, 0, MATH, new int[]{1});
+        state.place(0, 1, 1, MUSIC, new int[]{0});
+        for (int day = 1; day < SlotGrid.DAYS_PER_WEEK; day++) {
+            state.place(day * slotsPerDay, 0, 0, ART, new int[]{day + 1});
+        }
+        assertThat(state.unmetUnits()).isEqualTo(1);
+
+        scheduler.improve(1, null, new Random(1), SolverControl.none());
+
+        assertThat(state.unmetUnits()).isZero();
+        assertThat(state.lessons()).contains(mathLesson).hasSize(6);
+        assertThat(mathLesson.students()).containsExactly(0, 1);
+        assertThat(mathLesson.slot()).isNotZero();
+        assertThat(state.lessonOf(0, 0).subject()).isEqualTo(MUSIC);
+        assertConsistent(scheduler, problem);
+    }
+
+    @Test
+    void improvedScheduleKeepsTheStateConsistent() {
+        SchedulingProblem problem = crowdedSchool();
+        for (int seed = 0; seed < 20; seed++) {
+            ClassroomScheduler scheduler = new ClassroomScheduler(problem, 2, 1);
+            scheduler.placeLessons(new Random(seed));
+
+            scheduler.improve(2_000, null, new Random(seed), SolverControl.none());
+
+            assertConsistent(scheduler, problem);
+        }
+    }
+
+    /**
+     * More demand than the teachers can cover in their short working day, so the search keeps moving lessons.
+     */
+    private static SchedulingProblem crowdedSchool() {
+        TestSchool school = new TestSchool();
+        Subject[] subjects = new Subject[4];
+        for (int i = 0; i < subjects.length; i++) {
+            subjects[i] = school.subject(3);
+        }
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END.plusMinutes(100), subjects[0], subjects[1]);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END.plusMinutes(100), subjects[1], subjects[2]);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END.plusMinutes(100), subjects[2], subjects[3]);
+        for (int i = 0; i < 12; i++) {
+            school.student(subjects[i % 4], subjects[(i + 1) % 4], subjects[(i + 2) % 4]);
+        }
+        school.classroom(3);
+        school.classroom(2);
+        return school.problem();
+    }
+
+    /**
+     * Recomputes occupancy and remaining demand from the placed lessons and compares them with the indices of the
+     * state.
+     */
+    private static void assertConsistent(ClassroomScheduler scheduler, SchedulingProblem problem) {
+        ScheduleState state = scheduler.state();
+        int slotCount = problem.slotGrid().slotCount();
+        int subjectCount = problem.subjectCount();
+        boolean[] teacherBusy = new boolean[problem.teacherCount() * slotCount];
+        boolean[] classroomBusy = new boolean[problem.classroomCount() * slotCount];
+        boolean[] studentBusy = new boolean[problem.studentCount() * slotCount];
+        int[] attended = new int[problem.studentCount() * subjectCount];
+
+        for (PlacedLesson lesson : state.lessons()) {
+            int slot = lesson.slot();
+            assertThat(problem.isTeacherWorking(lesson.teacher(), slot)).isTrue();
+            assertThat(lesson.students().length).isBetween(1, state.capacity(lesson.classroom()));
+            assertThat(teacherBusy[lesson.teacher() * slotCount + slot]).isFalse();
+            assertThat(classroomBusy[lesson.classroom() * slotCount + slot]).isFalse();
+            teacherBusy[lesson.teacher() * slotCount + slot] = true;
+            classroomBusy[lesson.classroom() * slotCount + slot] = true;
+            for (int student : lesson.students()) {
+                assertThat(studentBusy[student * slotCount + slot]).isFalse();
+                studentBusy[student * slotCount + slot] = true;
+                attended[student * subjectCount + lesson.subject()]++;
+                assertThat(state.lessonOf(student, slot)).isSameAs(lesson);
+            }
+        }
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            for (int teacher = 0; teacher < problem.teacherCount(); teacher++) {
+                assertThat(state.occupancy().isTeacherFree(teacher, slot))
+                        .isEqualTo(!teacherBusy[teacher * slotCount + slot]);
+            }
+            for (int classroom = 0; classroom < problem.classroomCount(); classroom++) {
+                assertThat(state.occupancy().isClassroomFree(classroom, slot))
+                        .isEqualTo(!classroomBusy[classroom * slotCount + slot]);
+            }
+            for (int student = 0; student < problem.studentCount(); student++) {
+                assertThat(state.occupancy().isStudentFree(student, slot))
+                        .isEqualTo(!studentBusy[student * slotCount + slot]);
+            }
+        }
+
+        RequirementMatrix requirements = state.requirements();
+        for (int student = 0; student < problem.studentCount(); student++) {
+            for (int subject = 0; subject < subjectCount; subject++) {
+                int remaining = problem.weeklyLessons(student, subject) - attended[student * subjectCount + subject];
+                assertThat(requirements.remaining(student, subject)).isEqualTo(remaining);
+                assertThat(state.demand().contains(student, subject))
+                        .isEqualTo(problem.isEligible(student, subject) && remaining > 0);
+            }
+        }
+        assertThat(state.unmetUnits()).isEqualTo(requirements.unmetUnits());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.service.schedule;
+
+import com.example.db.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_END;
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_START;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequirementMatrixTest {
+    private RequirementMatrix requirements;
+
+    /**
+     * The first student takes both subjects, the second one only the second subject.
+     */
+    @BeforeEach
+    void setUp() {
+        TestSchool school = new TestSchool();
+        Subject first = school.subject(3);
+        Subject second = school.subject(2);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, first, second);
+        school.student(first, second);
+        school.student(second);
+        school.classroom(2);
+        requirements = new RequirementMatrix(school.problem());
+    }
+
+    @Test
+    void startsFromTheWeeklyDemandOfEnrolledSubjects() {
+        assertThat(requirements.remaining(0, 0)).isEqualTo(3);
+        assertThat(requirements.remaining(0, 1)).isEqualTo(2);
+        assertThat(requirements.remaining(1, 0)).isZero();
+        assertThat(requirements.remaining(1, 1)).isEqualTo(2);
+        assertThat(requirements.isEnrolled(1, 0)).isFalse();
+        assertThat(requirements.unmetUnits()).isEqualTo(7);
+    }
+
+    @Test
+    void surplusLessonsDoNotOffsetMissingOnes() {
+        requirements.decrement(1, 1);
+        requirements.decrement(1, 1);
+        assertThat(requirements.decrement(1, 1)).isEqualTo(-1);
+
+        assertThat(requirements.unmetUnits()).isEqualTo(5);
+        assertThat(requirements.remaining(0, 1)).isEqualTo(2);
+    }
+
+    @Test
+    void incrementGivesBackADeliveredLesson() {
+        requirements.decrement(0, 0);
+        assertThat(requirements.increment(0, 0)).isEqualTo(3);
+
+        assertThat(requirements.unmetUnits()).isEqualTo(7);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.service.schedule;
+
+import com.example.db.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_END;
+import static com.example.service.schedule.TestSchool.FIRST_LESSON_START;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SubjectPriorityQueueTest {
+    private static final int SHARED = 0;
+    private static final int SCARCE = 1;
+
+    private SubjectPriorityQueue queue;
+
+    /**
+     * The shared subject misses 4 lesson-units over 2 teachers, the scarce one 3 over a single teacher. A third
+     * subject has demand but no teacher.
+     */
+    @BeforeEach
+    void setUp() {
+        TestSchool school = new TestSchool();
+        Subject shared = school.subject(2);
+        Subject scarce = school.subject(3);
+        Subject untaught = school.subject(1);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, shared, scarce);
+        school.teacher(FIRST_LESSON_START, FIRST_LESSON_END, shared);
+        school.student(shared, scarce, untaught);
+        school.student(shared);
+        school.classroom(2);
+        queue = new SubjectPriorityQueue(school.problem());
+    }
+
+    @Test
+    void pollsSubjectsByDemandPerTeacher() {
+        assertThat(queue.poll()).isEqualTo(SCARCE);
+        assertThat(queue.poll()).isEqualTo(SHARED);
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void demandChangeReordersAndTiesGoToTheLowerSubject() {
+        queue.unitMet(0, SCARCE);
+
+        assertThat(queue.poll()).isEqualTo(SHARED);
+        assertThat(queue.poll()).isEqualTo(SCARCE);
+    }
+
+    @Test
+    void subjectLeavesWithItsLastUnitAndReturnsWhenOneIsFreed() {
+        for (int unit = 0; unit < 2; unit++) {
+            queue.unitMet(0, SHARED);
+            queue.unitMet(1, SHARED);
+        }
+        assertThat(queue.poll()).isEqualTo(SCARCE);
+        assertThat(queue.isEmpty()).isTrue();
+
+        queue.unitFreed(1, SHARED);
+        assertThat(queue.poll()).isEqualTo(SHARED);
+    }
+
+    @Test
+    void polledSubjectStaysOutUntilOffered() {
+        assertThat(queue.poll()).isEqualTo(SCARCE);
+        assertThat(queue.poll()).isEqualTo(SHARED);
+        assertThat(queue.isEmpty()).isTrue();
+
+        queue.offer(SCARCE);
+        assertThat(queue.poll()).isEqualTo(SCARCE);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.service.schedule;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.example.db.Classroom;
+import com.example.db.Student;
+import com.example.db.Subject;
+import com.example.db.Teacher;
+
+/**
+ * Builds small rosters for solver tests. Ids are handed out in creation order and every entity has level 1.
+ */
+final class TestSchool {
+    static final LocalTime FIRST_LESSON_START = LocalTime.of(9, 0);
+    static final LocalTime FIRST_LESSON_END = LocalTime.of(9, 40);
+
+    private final List<Student> students = new ArrayList<>();
+    private final List<Teacher> teachers = new ArrayList<>();
+    private final List<Subject> subjects = new ArrayList<>();
+    private final List<Classroom> classrooms = new ArrayList<>();
+    private long nextId = 1;
+
+    Subject subject(int lessonsPerWeek) {
+        long id = nextId++;
+        Subject subject = Subject.builder()
+                .id(id)
+                .name("Subject " + id)
+                .level(1)
+                .totalCountPerWeek(lessonsPerWeek)
+                .build();
+        subjects.add(subject);
+        return subject;
+    }
+
+    Teacher teacher(LocalTime timeStart, LocalTime timeEnd, Subject... taught) {
+        Teacher teacher = new Teacher();
+        teacher.setId(nextId++);
+        teacher.setName("Teacher");
+        teacher.setSurname(String.valueOf(teacher.getId()));
+        teacher.setPatronymic("");
+        teacher.setTimeStart(timeStart);
+        teacher.setTimeEnd(timeEnd);
+        teacher.setSubjects(Set.of(taught));
+        teachers.add(teacher);
+        return teacher;
+    }
+
+    Student student(Subject... enrolled) {
+        Student student = new Student();
+        student.setId(nextId++);
+        student.setName("Student");
+        student.setSurname(String.valueOf(student.getId()));
+        student.setLevel(1);
+        student.setSubjects(Set.of(enrolled));
+        students.add(student);
+        return student;
+    }
+
+    Classroom classroom(int capacity) {
+        Classroom classroom = new Classroom();
+        classroom.setId(nextId++);
+        classroom.setName("Room " + classroom.getId());
+        classroom.setCapacity(capacity);
+        classrooms.add(classroom);
+        return classroom;
+    }
+
+    SchedulingProblem problem() {
+        return SchedulingProblem.of(students, teachers, subjects, classrooms);
+    }
+}
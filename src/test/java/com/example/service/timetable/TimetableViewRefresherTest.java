@@ -0,0 +1,101 @@
+package com.example.service.timetable;
+
+import com.example.db.TimetableViewRepository;
+import com.example.service.ScheduleChangedEvent;
+import com.example.service.ScheduleVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimetableViewRefresherTest {
+    private final TimetableViewRepository repository = mock(TimetableViewRepository.class);
+    private final TimetableCache timetableCache = mock(TimetableCache.class);
+    private final ScheduleVersion scheduleVersion = new ScheduleVersion();
+    private final TimetableViewRefresher refresher =
+            new TimetableViewRefresher(repository, timetableCache, scheduleVersion);
+
+    @AfterEach
+    void tearDown() {
+        refresher.shutdown();
+    }
+
+    @Test
+    void etagFollowsTheVersionOnlyOnceTheViewsAreRefreshed() throws InterruptedException {
+        refresher.onApplicationReady();
+        awaitEtag(scheduleVersion.viewEtag(0));
+
+        scheduleVersion.onScheduleChanged(new ScheduleChangedEvent());
+        assertThat(refresher.etag()).isEqualTo(scheduleVersion.viewEtag(0));
+
+        refresher.onScheduleChanged(new ScheduleChangedEvent());
+        awaitEtag(scheduleVersion.viewEtag(1));
+    }
+
+    @Test
+    void failedRefreshKeepsTheEtagOfTheLastSuccessfulOne() throws InterruptedException {
+        refresher.onApplicationReady();
+        awaitEtag(scheduleVersion.viewEtag(0));
+        doThrow(new IllegalStateException("refresh failed")).when(repository).refresh();
+
+        scheduleVersion.onScheduleChanged(new ScheduleChangedEvent());
+        refresher.onScheduleChanged(new ScheduleChangedEvent());
+        verify(repository, timeout(5_000).times(2)).refresh();
+
+        assertThat(refresher.etag()).isEqualTo(scheduleVersion.viewEtag(0));
+    }
+
+    @Test
+    void refreshIsSkippedWhileTheCacheHoldsTheLiveRun() throws InterruptedException {
+        when(timetableCache.holdsLiveRun()).thenReturn(true);
+        refresher.onApplicationReady();
+        verify(timetableCache, timeout(5_000)).holdsLiveRun();
+
+        when(timetableCache.holdsLiveRun()).thenReturn(false);
+        scheduleVersion.onScheduleChanged(new ScheduleChangedEvent());
+        refresher.onScheduleChanged(new ScheduleChangedEvent());
+        awaitEtag(scheduleVersion.viewEtag(1));
+        verify(repository, times(1)).refresh();
+    }
+
+    /**
+     * The refresher is registered before the version, so it would see a change first if the version listeners were
+     * not ordered ahead of it.
+     */
+    @Test
+    void refreshCoversTheChangeThatQueuedIt() throws InterruptedException {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(TransactionalEventListenerFactory.class);
+            context.registerBean(TimetableViewRepository.class, () -> repository);
+            context.registerBean(TimetableCache.class, () -> timetableCache);
+            context.registerBean(TimetableViewRefresher.class);
+            context.registerBean(ScheduleVersion.class);
+            context.refresh();
+
+            context.publishEvent(new ScheduleChangedEvent());
+
+            awaitEtag(context.getBean(TimetableViewRefresher.class),
+                    context.getBean(ScheduleVersion.class).viewEtag(1));
+        }
+    }
+
+    private void awaitEtag(String expected) throws InterruptedException {
+        awaitEtag(refresher, expected);
+    }
+
+    private static void awaitEtag(TimetableViewRefresher refresher, String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!refresher.etag().equals(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(refresher.etag()).isEqualTo(expected);
+    }
+}